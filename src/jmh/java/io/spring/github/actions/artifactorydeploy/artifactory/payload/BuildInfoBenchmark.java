@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory.payload;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks for the JSON serialization of {@link BuildInfo}.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+public class BuildInfoBenchmark {
+
+	private static final String[] SUFFIXES = { ".jar", ".pom", ".module", "-sources.jar", "-javadoc.jar" };
+
+	@Param({ "100", "1000", "10000" })
+	public int modules;
+
+	private ObjectMapper objectMapper;
+
+	private BuildInfo buildInfo;
+
+	@Setup
+	public void createBuildInfo() {
+		this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		List<BuildModule> buildModules = new ArrayList<>(this.modules);
+		for (int module = 0; module < this.modules; module++) {
+			List<BuildArtifact> artifacts = new ArrayList<>();
+			for (String suffix : SUFFIXES) {
+				artifacts.add(new BuildArtifact(suffix.substring(suffix.lastIndexOf('.') + 1),
+						"a9993e364706816aba3e25717850c26c9cd0d89d", "900150983cd24fb0d6963f7d28e17f72",
+						"module-%d-1.0.0%s".formatted(module, suffix)));
+			}
+			buildModules.add(new BuildModule("com.example:module-%d:1.0.0".formatted(module), artifacts));
+		}
+		this.buildInfo = new BuildInfo("my-build", "1", Instant.now(), "https://ci.example.com/builds/1",
+				buildModules);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws JsonProcessingException {
+		return this.objectMapper.writeValueAsBytes(this.buildInfo);
+	}
+
+}
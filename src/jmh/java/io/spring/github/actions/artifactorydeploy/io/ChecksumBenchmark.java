@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Benchmarks for {@link Checksum}.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+public class ChecksumBenchmark {
+
+	@Param({ "1024", "1048576", "67108864" })
+	public int size;
+
+	private Path file;
+
+	@Setup
+	public void createFile() throws IOException {
+		byte[] content = new byte[this.size];
+		new Random(0).nextBytes(content);
+		this.file = Files.createTempFile("checksum-benchmark", ".jar");
+		Files.write(this.file, content);
+	}
+
+	@TearDown
+	public void deleteFile() throws IOException {
+		Files.delete(this.file);
+	}
+
+	@Benchmark
+	public Map<Checksum, String> calculateAll() {
+		return Checksum.calculateAll(new FileSystemResource(this.file));
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Benchmarks for {@link FileSet}.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+public class FileSetBenchmark {
+
+	private static final String[] SUFFIXES = { ".jar", ".pom", ".module", "-sources.jar", "-javadoc.jar" };
+
+	@Param({ "10000", "100000" })
+	public int files;
+
+	private Path root;
+
+	private List<File> tree;
+
+	@Setup
+	public void createTree() throws IOException {
+		this.root = Files.createTempDirectory("file-set-benchmark");
+		this.tree = new ArrayList<>(this.files);
+		for (int module = 0; this.tree.size() < this.files; module++) {
+			Path directory = this.root.resolve("com/example/module-%d/1.0.0".formatted(module));
+			Files.createDirectories(directory);
+			for (int i = 0; i < SUFFIXES.length && this.tree.size() < this.files; i++) {
+				Path file = directory.resolve("module-%d-1.0.0%s".formatted(module, SUFFIXES[i]));
+				this.tree.add(Files.createFile(file).toFile());
+			}
+		}
+	}
+
+	@TearDown
+	public void deleteTree() throws IOException {
+		FileSystemUtils.deleteRecursively(this.root);
+	}
+
+	@Benchmark
+	public FileSet of() {
+		return FileSet.of(this.tree);
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link PathFilter}.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+public class PathFilterBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int patterns;
+
+	private PathFilter filter;
+
+	private List<String> paths;
+
+	@Setup
+	public void createFilter() {
+		List<String> include = new ArrayList<>();
+		List<String> exclude = new ArrayList<>();
+		for (int i = 0; i < this.patterns; i++) {
+			include.add("/com/example/module-%d*/**/*.jar".formatted(i));
+			exclude.add("/com/example/module-%d*/**/*-javadoc.jar".formatted(i));
+		}
+		this.filter = new PathFilter(include, exclude);
+		this.paths = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			this.paths.add("/com/example/module-%d/1.0.0/module-%1$d-1.0.0.jar".formatted(i));
+			this.paths.add("/com/example/module-%d/1.0.0/module-%1$d-1.0.0-javadoc.jar".formatted(i));
+			this.paths.add("/com/example/module-%d/1.0.0/module-%1$d-1.0.0.pom".formatted(i));
+		}
+	}
+
+	@Benchmark
+	public void isMatch(Blackhole blackhole) {
+		for (String path : this.paths) {
+			blackhole.consume(this.filter.isMatch(path));
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildModule;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.Checksums;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableFileArtifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link MavenCoordinates} and {@link MavenBuildModulesGenerator}.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+public class MavenBenchmark {
+
+	private static final String[] SUFFIXES = { ".jar", ".pom", ".module", "-sources.jar", "-javadoc.jar",
+			".jar.asc" };
+
+	private static final Checksums CHECKSUMS = new Checksums("a9993e364706816aba3e25717850c26c9cd0d89d",
+			"900150983cd24fb0d6963f7d28e17f72");
+
+	@Param({ "100", "1000" })
+	public int modules;
+
+	private List<DeployableArtifact> artifacts;
+
+	@Setup
+	public void createArtifacts() {
+		this.artifacts = new ArrayList<>();
+		for (int module = 0; module < this.modules; module++) {
+			for (String suffix : SUFFIXES) {
+				String path = "/com/example/module-%d/1.0.0-SNAPSHOT/module-%1$d-1.0.0-20240101.120000-1%s"
+					.formatted(module, suffix);
+				this.artifacts
+					.add(new DeployableFileArtifact(path, new File(path), Collections.emptyMap(), CHECKSUMS));
+			}
+		}
+	}
+
+	@Benchmark
+	public void fromPath(Blackhole blackhole) {
+		for (DeployableArtifact artifact : this.artifacts) {
+			blackhole.consume(MavenCoordinates.fromPath(artifact.getPath()));
+		}
+	}
+
+	@Benchmark
+	public List<BuildModule> getBuildModules() {
+		return new MavenBuildModulesGenerator().getBuildModules(this.artifacts);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import io.spring.github.actions.artifactorydeploy.SyntheticRepository.SizeDistribution;
+import io.spring.github.actions.artifactorydeploy.artifactory.FakeArtifactory;
+import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Load test that deploys a {@link SyntheticRepository synthetic repository} to a
+ * {@link FakeArtifactory} and reports the throughput that was achieved. The following
+ * options are supported:
+ * <ul>
+ * <li>{@code --modules}: number of modules to deploy (default 100)</li>
+ * <li>{@code --jar-size}: size, or mean size, of each module's jar (default 1MB)</li>
+ * <li>{@code --jar-size-distribution}: distribution of jar sizes, {@code fixed} or
+ * {@code exponential} (default fixed)</li>
+ * <li>{@code --snapshots}: whether to deploy timestamped snapshots (default false)</li>
+ * <li>{@code --latency}: delay before Artifactory responds to each request (default
+ * 0ms)</li>
+ * <li>{@code --bandwidth}: combined rate at which Artifactory receives content (default
+ * unlimited)</li>
+ * <li>{@code --error-rate}: proportion of deploy requests that fail (default 0)</li>
+ * <li>{@code --throttle-rate}: proportion of deploy requests that are throttled (default
+ * 0)</li>
+ * </ul>
+ * Any {@code --artifactory.*} options are passed to the deployment, for example
+ * {@code --artifactory.deploy.threads=8}.
+ *
+ * @author Andy Wilkinson
+ */
+public final class LoadTest {
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		SimpleCommandLinePropertySource options = new SimpleCommandLinePropertySource(args);
+		int modules = Integer.parseInt(getOption(options, "modules", "100"));
+		DataSize jarSize = DataSize.parse(getOption(options, "jar-size", "1MB"));
+		SizeDistribution sizeDistribution = SizeDistribution
+			.valueOf(getOption(options, "jar-size-distribution", "fixed").toUpperCase());
+		boolean snapshots = Boolean.parseBoolean(getOption(options, "snapshots", "false"));
+		Duration latency = DurationStyle.detectAndParse(getOption(options, "latency", "0ms"));
+		String bandwidth = getOption(options, "bandwidth", null);
+		double errorRate = Double.parseDouble(getOption(options, "error-rate", "0"));
+		double throttleRate = Double.parseDouble(getOption(options, "throttle-rate", "0"));
+		Path root = Files.createTempDirectory("load-test");
+		try (FakeArtifactory artifactory = new FakeArtifactory(latency,
+				(bandwidth != null) ? DataSize.parse(bandwidth) : null, errorRate, throttleRate)) {
+			new SyntheticRepository(modules, jarSize, sizeDistribution, snapshots).generate(root);
+			long start = System.nanoTime();
+			deploy(options, artifactory, root);
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+			console.log("Deployed {} artifacts ({} bytes received) in {}ms ({} MB/s)", artifactory.getArtifactCount(),
+					artifactory.getBytesReceived(), elapsed.toMillis(),
+					String.format(Locale.ROOT, "%.2f",
+							artifactory.getBytesReceived() / (1024.0 * 1024.0) / (elapsed.toNanos() / 1e9)));
+			console.log("Responses by status: {}", artifactory.getResponses());
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(root);
+		}
+	}
+
+	/**
+	 * Deploy the repository in the given root directory to the given fake Artifactory.
+	 * @param options the command line options, any {@code artifactory.*} options are
+	 * passed to the deployment
+	 * @param artifactory the fake Artifactory
+	 * @param root the root of the repository to deploy
+	 */
+	static void deploy(SimpleCommandLinePropertySource options, FakeArtifactory artifactory, Path root) {
+		try (ConfigurableApplicationContext context = start(options, artifactory, root)) {
+			context.getBean(Deployer.class).deploy();
+		}
+	}
+
+	/**
+	 * Start the application that will deploy the repository in the given root directory
+	 * to the given fake Artifactory, without deploying it.
+	 * @param options the command line options, any {@code artifactory.*} options are
+	 * passed to the deployment
+	 * @param artifactory the fake Artifactory
+	 * @param root the root of the repository to deploy
+	 * @return the application context, from which the {@link Deployer} can be retrieved
+	 */
+	static ConfigurableApplicationContext start(SimpleCommandLinePropertySource options, FakeArtifactory artifactory,
+			Path root) {
+		return SpringApplication.run(ArtifactoryDeploy.class, getDeployArgs(options, artifactory, root));
+	}
+
+	static String getOption(SimpleCommandLinePropertySource options, String name, String defaultValue) {
+		String value = options.getProperty(name);
+		return (value != null) ? value : defaultValue;
+	}
+
+	private static String[] getDeployArgs(SimpleCommandLinePropertySource options, FakeArtifactory artifactory,
+			Path root) {
+		Map<String, String> deployOptions = new LinkedHashMap<>();
+		deployOptions.put("artifactory.server.uri", artifactory.getUri().toString());
+		deployOptions.put("artifactory.server.username", "load-test");
+		deployOptions.put("artifactory.server.password", "secret");
+		deployOptions.put("artifactory.deploy.repository", "libs-load-test-local");
+		deployOptions.put("artifactory.deploy.folder", root.toString());
+		deployOptions.put("artifactory.deploy.build.name", "load-test");
+		deployOptions.put("artifactory.deploy.build.number", "1");
+		for (String name : options.getPropertyNames()) {
+			if (name.startsWith("artifactory.")) {
+				deployOptions.put(name, options.getProperty(name));
+			}
+		}
+		return deployOptions.entrySet()
+			.stream()
+			.map((entry) -> "--%s=%s".formatted(entry.getKey(), entry.getValue()))
+			.toArray(String[]::new);
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.spring.github.actions.artifactorydeploy.SyntheticRepository.SizeDistribution;
+import io.spring.github.actions.artifactorydeploy.artifactory.FakeArtifactory;
+import io.spring.github.actions.artifactorydeploy.io.DirectoryScanner;
+import io.spring.github.actions.artifactorydeploy.io.FileSet;
+import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Benchmark that measures how each stage of a deployment scales with the number of
+ * files in a {@link SyntheticRepository synthetic repository}. For each number of files,
+ * the time taken and the peak heap usage of scanning the repository, batching its files
+ * by category, and deploying it to a {@link FakeArtifactory} are reported. The
+ * application is started before the deploy stage is measured. The deploy stage includes
+ * the {@link Deployer}'s own scan of the repository as it does not reuse the result of the
+ * scan stage. The following options are supported:
+ * <ul>
+ * <li>{@code --files}: comma-separated numbers of files (default 1000,10000,100000)</li>
+ * <li>{@code --jar-size}: size, or mean size, of each module's jar (default 1KB)</li>
+ * <li>{@code --jar-size-distribution}: distribution of jar sizes, {@code fixed} or
+ * {@code exponential} (default fixed)</li>
+ * <li>{@code --snapshots}: whether to deploy timestamped snapshots (default false)</li>
+ * </ul>
+ * Any {@code --artifactory.*} options are passed to the deployment.
+ *
+ * @author Andy Wilkinson
+ */
+public final class ScalingBenchmark {
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+	private ScalingBenchmark() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		SimpleCommandLinePropertySource options = new SimpleCommandLinePropertySource(args);
+		int[] scales = Arrays.stream(LoadTest.getOption(options, "files", "1000,10000,100000").split(","))
+			.mapToInt((files) -> Integer.parseInt(files.trim()))
+			.toArray();
+		DataSize jarSize = DataSize.parse(LoadTest.getOption(options, "jar-size", "1KB"));
+		SizeDistribution sizeDistribution = SizeDistribution
+			.valueOf(LoadTest.getOption(options, "jar-size-distribution", "fixed").toUpperCase());
+		boolean snapshots = Boolean.parseBoolean(LoadTest.getOption(options, "snapshots", "false"));
+		StringBuilder results = new StringBuilder();
+		results.append("| Files | Stage | Time (ms) | Time per file (us) | Peak heap (MB) |\n");
+		results.append("| --- | --- | --- | --- | --- |\n");
+		for (int files : scales) {
+			int modules = Math.max(files / SyntheticRepository.FILES_PER_MODULE, 1);
+			Path root = Files.createTempDirectory("scaling-benchmark");
+			try (FakeArtifactory artifactory = new FakeArtifactory(Duration.ZERO, null, 0, 0)) {
+				new SyntheticRepository(modules, jarSize, sizeDistribution, snapshots).generate(root);
+				FileSet fileSet = measure(results, files, "scan", () -> new DirectoryScanner().scan(root.toFile()));
+				measure(results, files, "batch", fileSet::batchedByCategory);
+				try (ConfigurableApplicationContext context = LoadTest.start(options, artifactory, root)) {
+					Deployer deployer = context.getBean(Deployer.class);
+					measure(results, files, "deploy", () -> {
+						deployer.deploy();
+						return null;
+					});
+				}
+			}
+			finally {
+				FileSystemUtils.deleteRecursively(root);
+			}
+		}
+		console.log(results.toString());
+	}
+
+	private static <T> T measure(StringBuilder results, int files, String stage, Supplier<T> action) {
+		List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans()
+			.stream()
+			.filter((pool) -> pool.getType() == MemoryType.HEAP)
+			.toList();
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		long start = System.nanoTime();
+		T result = action.get();
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+		long peakHeap = heapPools.stream().mapToLong((pool) -> pool.getPeakUsage().getUsed()).sum();
+		results.append("| %d | %s | %d | %d | %d |%n".formatted(files, stage, elapsed.toMillis(),
+				elapsed.toNanos() / 1000 / files, peakHeap / BYTES_PER_MEGABYTE));
+		return result;
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.springframework.util.unit.DataSize;
+
+/**
+ * A synthetic Maven repository for a deployment to deploy. Each module has a jar, a
+ * sources jar, a javadoc jar, a pom, and Gradle module metadata. Snapshot modules use
+ * timestamped file names and also have Maven metadata. Content is random but
+ * reproducible.
+ *
+ * @author Andy Wilkinson
+ */
+final class SyntheticRepository {
+
+	/**
+	 * The number of deployable files that are generated for each module.
+	 */
+	static final int FILES_PER_MODULE = 5;
+
+	private static final int METADATA_SIZE = 2 * 1024;
+
+	private static final String SNAPSHOT_TIMESTAMP = "20240101.120000-1";
+
+	private final int modules;
+
+	private final DataSize jarSize;
+
+	private final SizeDistribution sizeDistribution;
+
+	private final boolean snapshots;
+
+	/**
+	 * Create a new {@code SyntheticRepository}.
+	 * @param modules the number of modules
+	 * @param jarSize the size, or mean size, of each module's jar
+	 * @param sizeDistribution the distribution of the sizes of the modules' jars
+	 * @param snapshots whether the modules are timestamped snapshots
+	 */
+	SyntheticRepository(int modules, DataSize jarSize, SizeDistribution sizeDistribution, boolean snapshots) {
+		this.modules = modules;
+		this.jarSize = jarSize;
+		this.sizeDistribution = sizeDistribution;
+		this.snapshots = snapshots;
+	}
+
+	/**
+	 * Generate the repository in the given root directory.
+	 * @param root the root directory
+	 * @throws IOException if the repository cannot be generated
+	 */
+	void generate(Path root) throws IOException {
+		Random random = new Random(0);
+		String version = this.snapshots ? "1.0.0-SNAPSHOT" : "1.0.0";
+		String fileVersion = this.snapshots ? "1.0.0-" + SNAPSHOT_TIMESTAMP : version;
+		for (int module = 0; module < this.modules; module++) {
+			String name = "module-%d".formatted(module);
+			Path directory = Files.createDirectories(root.resolve("com/example").resolve(name).resolve(version));
+			String prefix = name + "-" + fileVersion;
+			long jarSize = this.sizeDistribution.nextSize(this.jarSize.toBytes(), random);
+			write(directory.resolve(prefix + ".jar"), jarSize, random);
+			write(directory.resolve(prefix + "-sources.jar"), Math.max(jarSize / 2, 1), random);
+			write(directory.resolve(prefix + "-javadoc.jar"), Math.max(jarSize / 4, 1), random);
+			write(directory.resolve(prefix + ".pom"), METADATA_SIZE, random);
+			write(directory.resolve(prefix + ".module"), METADATA_SIZE, random);
+			if (this.snapshots) {
+				Files.writeString(directory.resolve("maven-metadata.xml"), getMavenMetadata(name));
+			}
+		}
+	}
+
+	private void write(Path file, long size, Random random) throws IOException {
+		byte[] content = new byte[Math.toIntExact(size)];
+		random.nextBytes(content);
+		Files.write(file, content);
+	}
+
+	private String getMavenMetadata(String name) {
+		return """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<metadata>
+				  <groupId>com.example</groupId>
+				  <artifactId>%s</artifactId>
+				  <version>1.0.0-SNAPSHOT</version>
+				  <versioning>
+				    <snapshot>
+				      <timestamp>%s</timestamp>
+				      <buildNumber>1</buildNumber>
+				    </snapshot>
+				  </versioning>
+				</metadata>
+				""".formatted(name, SNAPSHOT_TIMESTAMP.substring(0, SNAPSHOT_TIMESTAMP.indexOf('-')));
+	}
+
+	/**
+	 * Distributions of the sizes of the modules' jars.
+	 */
+	enum SizeDistribution {
+
+		/**
+		 * Every jar is the same size.
+		 */
+		FIXED {
+
+			@Override
+			long nextSize(long size, Random random) {
+				return size;
+			}
+
+		},
+
+		/**
+		 * Jar sizes are exponentially distributed so that most jars are small and a few
+		 * are large. The largest jar is no more than ten times the mean.
+		 */
+		EXPONENTIAL {
+
+			@Override
+			long nextSize(long mean, Random random) {
+				return Math.max(Math.min(Math.round(random.nextExponential() * mean), mean * 10), 1);
+			}
+
+		};
+
+		abstract long nextSize(long size, Random random);
+
+	}
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-process stand-in for Artifactory that implements enough of its API for a deployment
+ * to run against it. Artifacts can be deployed by content or, if content with the same
+ * SHA-1 has already been deployed, by checksum. Build info is accepted and discarded and
+ * searches for existing artifacts never find anything. Each request can be delayed, the
+ * combined rate at which content is received can be limited, and a proportion of
+ * requests to deploy an artifact can be failed with a {@code 400 Bad Request} or
+ * throttled with a {@code 429 Too Many Requests} response.
+ *
+ * @author Andy Wilkinson
+ */
+public class FakeArtifactory implements AutoCloseable {
+
+	private static final String CONTEXT_PATH = "/artifactory/";
+
+	private static final int CHUNK_SIZE = 8 * 1024;
+
+	private final Duration latency;
+
+	private final BandwidthLimiter bandwidthLimiter;
+
+	private final double errorRate;
+
+	private final double throttleRate;
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	private final Set<String> sha1s = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, String> artifacts = new ConcurrentHashMap<>();
+
+	private final Map<Integer, LongAdder> responses = new ConcurrentHashMap<>();
+
+	private final LongAdder bytesReceived = new LongAdder();
+
+	/**
+	 * Create and start a new {@code FakeArtifactory}.
+	 * @param latency the delay before responding to each request
+	 * @param bandwidth the combined rate at which content is received or {@code null}
+	 * for no limit
+	 * @param errorRate the proportion, between 0 and 1, of deploy requests that fail
+	 * @param throttleRate the proportion, between 0 and 1, of deploy requests that are
+	 * throttled
+	 * @throws IOException if the server cannot be started
+	 */
+	public FakeArtifactory(Duration latency, DataSize bandwidth, double errorRate, double throttleRate)
+			throws IOException {
+		Assert.isTrue(errorRate + throttleRate <= 1, "Combined error and throttle rates must not exceed 1");
+		this.latency = latency;
+		this.bandwidthLimiter = (bandwidth != null) ? new BandwidthLimiter(bandwidth) : null;
+		this.errorRate = errorRate;
+		this.throttleRate = throttleRate;
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("fake-artifactory-"));
+		this.server.setExecutor(this.executor);
+		this.server.createContext(CONTEXT_PATH, this::handle);
+		this.server.start();
+	}
+
+	/**
+	 * Return the URI of the fake Artifactory server.
+	 * @return the URI
+	 */
+	public URI getUri() {
+		InetSocketAddress address = this.server.getAddress();
+		return URI.create("http://%s:%d%s".formatted(address.getHostString(), address.getPort(), CONTEXT_PATH));
+	}
+
+	/**
+	 * Return the number of distinct artifacts that have been deployed.
+	 * @return the number of artifacts
+	 */
+	public int getArtifactCount() {
+		return this.artifacts.size();
+	}
+
+	/**
+	 * Return the number of bytes of content that have been received.
+	 * @return the number of bytes
+	 */
+	public long getBytesReceived() {
+		return this.bytesReceived.sum();
+	}
+
+	/**
+	 * Return the number of responses that have been sent, keyed by status.
+	 * @return the number of responses by status
+	 */
+	public Map<Integer, Long> getResponses() {
+		Map<Integer, Long> responses = new TreeMap<>();
+		this.responses.forEach((status, count) -> responses.put(status, count.sum()));
+		return responses;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			Thread.sleep(this.latency.toMillis());
+			int status = respond(exchange);
+			this.responses.computeIfAbsent(status, (key) -> new LongAdder()).increment();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	private int respond(HttpExchange exchange) throws IOException, InterruptedException {
+		String method = exchange.getRequestMethod();
+		String path = exchange.getRequestURI().getRawPath().substring(CONTEXT_PATH.length());
+		if ("POST".equals(method) && "api/search/aql".equals(path)) {
+			drain(exchange);
+			return send(exchange, 200, "{\"results\":[]}");
+		}
+		if ("PUT".equals(method) && "api/build".equals(path)) {
+			drain(exchange);
+			return send(exchange, 204, null);
+		}
+		if (!"PUT".equals(method)) {
+			drain(exchange);
+			return send(exchange, 405, null);
+		}
+		return deploy(exchange, path);
+	}
+
+	private int deploy(HttpExchange exchange, String path) throws IOException, InterruptedException {
+		double random = ThreadLocalRandom.current().nextDouble();
+		if (random < this.throttleRate) {
+			drain(exchange);
+			return send(exchange, 429, null);
+		}
+		if (random < this.throttleRate + this.errorRate) {
+			drain(exchange);
+			return send(exchange, 400, null);
+		}
+		Headers headers = exchange.getRequestHeaders();
+		String sha1 = headers.getFirst("X-Checksum-Sha1");
+		int propertiesIndex = path.indexOf(';');
+		String artifactPath = (propertiesIndex != -1) ? path.substring(0, propertiesIndex) : path;
+		if ("true".equals(headers.getFirst("X-Checksum-Deploy"))) {
+			drain(exchange);
+			if (sha1 == null || !this.sha1s.contains(sha1)) {
+				return send(exchange, 404, null);
+			}
+			this.artifacts.put(artifactPath, sha1);
+			return send(exchange, 201, null);
+		}
+		String received = receive(exchange.getRequestBody());
+		if (sha1 != null && !sha1.equalsIgnoreCase(received)) {
+			return send(exchange, 409, null);
+		}
+		this.sha1s.add(received);
+		this.artifacts.put(artifactPath, received);
+		return send(exchange, 201, null);
+	}
+
+	private String receive(InputStream content) throws IOException, InterruptedException {
+		MessageDigest digest = getSha1Digest();
+		byte[] buffer = new byte[CHUNK_SIZE];
+		int read;
+		while ((read = content.read(buffer)) != -1) {
+			if (this.bandwidthLimiter != null) {
+				this.bandwidthLimiter.acquire(read);
+			}
+			digest.update(buffer, 0, read);
+			this.bytesReceived.add(read);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private MessageDigest getSha1Digest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private void drain(HttpExchange exchange) throws IOException {
+		StreamUtils.drain(exchange.getRequestBody());
+	}
+
+	private int send(HttpExchange exchange, int status, String json) throws IOException {
+		if (json == null) {
+			exchange.sendResponseHeaders(status, -1);
+			return status;
+		}
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		exchange.getResponseBody().write(body);
+		return status;
+	}
+
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+
+}
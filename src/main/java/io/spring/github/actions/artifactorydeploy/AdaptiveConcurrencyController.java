@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.net.URI;
+import java.util.function.LongSupplier;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployListener;
+import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Controls the number of concurrent deployments using additive-increase,
+ * multiplicative-decrease. Attempts are grouped into windows. When a window's throughput
+ * of uploaded content improves on the best seen so far, concurrency is increased by one,
+ * up to the configured number of threads. Concurrency is decreased multiplicatively when
+ * Artifactory throttles a request (a 429 or 503 response), when a connection fails, or
+ * when a window's upload latency per byte rises well above the lowest that has been
+ * seen. Checksum deploys upload no content so they do not contribute to either measure.
+ * <p>
+ * When deploying to additional targets, throughput and latency are only measured for the
+ * primary target so that each deployment is counted once and a slow additional target
+ * does not lower concurrency. A throttled request or a failed connection to any target
+ * still decreases concurrency.
+ *
+ * @author Andy Wilkinson
+ */
+@Component
+class AdaptiveConcurrencyController implements DeployListener {
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private static final int INITIAL_LIMIT = 2;
+
+	private static final int MINIMUM_WINDOW_SIZE = 4;
+
+	private static final double THROUGHPUT_IMPROVEMENT = 1.05;
+
+	private static final double LATENCY_TOLERANCE = 2.0;
+
+	private static final double FAILURE_DECREASE = 0.5;
+
+	private static final double LATENCY_DECREASE = 0.75;
+
+	private final int maximum;
+
+	private final URI primary;
+
+	private final LongSupplier nanoTime;
+
+	private BoundedExecutor executor;
+
+	private Window window;
+
+	private long lastDecrease;
+
+	private double bestThroughput;
+
+	private double lowestLatencyPerByte;
+
+	@Autowired
+	AdaptiveConcurrencyController(ArtifactoryDeployProperties properties) {
+		this(properties.deploy().threads(), properties.server().uri(), System::nanoTime);
+	}
+
+	AdaptiveConcurrencyController(int maximum, URI primary, LongSupplier nanoTime) {
+		this.maximum = maximum;
+		this.primary = primary;
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Start controlling the limit of the given executor.
+	 * @param executor the executor to control
+	 */
+	synchronized void start(BoundedExecutor executor) {
+		long now = this.nanoTime.getAsLong();
+		this.executor = executor;
+		this.executor.setLimit(Math.min(INITIAL_LIMIT, this.maximum));
+		this.window = new Window(now);
+		this.lastDecrease = now;
+		this.bestThroughput = 0;
+		this.lowestLatencyPerByte = Double.MAX_VALUE;
+		console.debug("Starting adaptive deployment with {} thread(s)", this.executor.getLimit());
+	}
+
+	/**
+	 * Stop controlling the executor's limit, logging the limit that was settled on.
+	 * @return the limit that was settled on
+	 */
+	synchronized int stop() {
+		int limit = this.executor.getLimit();
+		this.executor = null;
+		console.log("Adaptive deployment settled on {} thread(s)", limit);
+		return limit;
+	}
+
+	@Override
+	public synchronized void attemptCompleted(DeployAttempt attempt) {
+		if (this.executor == null) {
+			return;
+		}
+		long now = this.nanoTime.getAsLong();
+		long started = now - attempt.duration().toNanos();
+		if (attempt.isThrottled() || attempt.isCausedBySocketException()) {
+			if (started >= this.lastDecrease) {
+				decrease(FAILURE_DECREASE, now,
+						attempt.isThrottled() ? "Artifactory responded with " + attempt.status() : "connection failed");
+			}
+			return;
+		}
+		if (!this.primary.equals(attempt.target())) {
+			return;
+		}
+		if (attempt.isSuccessful() && this.window.add(attempt, started)
+				&& this.window.count >= Math.max(this.executor.getLimit(), MINIMUM_WINDOW_SIZE)) {
+			evaluate(now);
+		}
+	}
+
+	private void evaluate(long now) {
+		double throughput = this.window.throughput(now);
+		double latencyPerByte = this.window.latencyPerByte();
+		if (!Double.isNaN(latencyPerByte)) {
+			this.lowestLatencyPerByte = Math.min(this.lowestLatencyPerByte, latencyPerByte);
+		}
+		if (throughput > this.bestThroughput * THROUGHPUT_IMPROVEMENT) {
+			this.bestThroughput = throughput;
+			increase(now);
+		}
+		else if (latencyPerByte > this.lowestLatencyPerByte * LATENCY_TOLERANCE) {
+			decrease(LATENCY_DECREASE, now, "latency increased");
+		}
+		else {
+			this.window = new Window(now);
+		}
+	}
+
+	private void increase(long now) {
+		int limit = this.executor.getLimit();
+		if (limit < this.maximum) {
+			this.executor.setLimit(limit + 1);
+			console.debug("Increased deployment concurrency to {} thread(s)", limit + 1);
+		}
+		this.window = new Window(now);
+	}
+
+	private void decrease(double factor, long now, String reason) {
+		int limit = Math.max(1, (int) (this.executor.getLimit() * factor));
+		this.executor.setLimit(limit);
+		this.window = new Window(now);
+		this.lastDecrease = now;
+		this.bestThroughput = 0;
+		console.debug("Decreased deployment concurrency to {} thread(s) as {}", limit, reason);
+	}
+
+	/**
+	 * A window of successful attempts that started after the concurrency was last
+	 * changed. Only attempts that uploaded content contribute bytes and latency.
+	 */
+	private static final class Window {
+
+		private final long start;
+
+		private int count;
+
+		private long bytes;
+
+		private long latency;
+
+		Window(long start) {
+			this.start = start;
+		}
+
+		boolean add(DeployAttempt attempt, long started) {
+			if (started < this.start) {
+				return false;
+			}
+			this.count++;
+			if (attempt.mode() == Mode.CONTENT) {
+				this.bytes += attempt.artifact().getSize();
+				this.latency += attempt.duration().toNanos();
+			}
+			return true;
+		}
+
+		double throughput(long now) {
+			return (double) this.bytes / Math.max(1, now - this.start);
+		}
+
+		double latencyPerByte() {
+			return (this.bytes > 0) ? (double) this.latency / this.bytes : Double.NaN;
+		}
+
+	}
+
+}
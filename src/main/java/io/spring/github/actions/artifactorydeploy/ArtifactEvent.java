@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR {@link Event} for the calculation of a single artifact's checksums or, for a
+ * signature, the signing of the artifact.
+ *
+ * @author Andy Wilkinson
+ */
+@Name("io.spring.github.actions.artifactorydeploy.Artifact")
+@Label("Artifact Preparation")
+@Category("Artifactory Deploy")
+@Description("Calculation of an artifact's checksums or the signing of an artifact")
+class ArtifactEvent extends Event {
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Path")
+	String path;
+
+	@Label("Size")
+	@DataAmount
+	long size;
+
+	ArtifactEvent(Phase phase, DeployableArtifact artifact) {
+		this.phase = phase.name().toLowerCase();
+		this.path = artifact.getPath();
+	}
+
+}
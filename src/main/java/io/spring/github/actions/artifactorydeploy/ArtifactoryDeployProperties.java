@@ -24,6 +24,7 @@ import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Configuration properties for deploying to Artifactory.
@@ -31,12 +32,27 @@ import org.springframework.util.Assert;
  * @param server server properties
  * @param signing signing properties
  * @param deploy deploy properties
+ * @param targets additional targets to which artifacts are also deployed
+ * @param targetCredentials credentials used to authenticate with any additional target
+ * whose URI does not include credentials
  * @author Andy Wilkinson
  */
 @ConfigurationProperties(prefix = "artifactory")
 public record ArtifactoryDeployProperties(@DefaultValue ArtifactoryDeployProperties.Server server,
 		@DefaultValue ArtifactoryDeployProperties.Signing signing,
-		@DefaultValue ArtifactoryDeployProperties.Deploy deploy) {
+		@DefaultValue ArtifactoryDeployProperties.Deploy deploy, List<ArtifactoryDeployProperties.Target> targets,
+		@DefaultValue ArtifactoryDeployProperties.Credentials targetCredentials) {
+
+	public ArtifactoryDeployProperties(@DefaultValue ArtifactoryDeployProperties.Server server,
+			@DefaultValue ArtifactoryDeployProperties.Signing signing,
+			@DefaultValue ArtifactoryDeployProperties.Deploy deploy, List<ArtifactoryDeployProperties.Target> targets,
+			@DefaultValue ArtifactoryDeployProperties.Credentials targetCredentials) {
+		this.server = server;
+		this.signing = signing;
+		this.deploy = deploy;
+		this.targets = (targets != null) ? targets : Collections.emptyList();
+		this.targetCredentials = (targetCredentials != null) ? targetCredentials : new Credentials(null, null);
+	}
 
 	public record Server(URI uri, String username, String password) {
 
@@ -52,17 +68,81 @@ public record ArtifactoryDeployProperties(@DefaultValue ArtifactoryDeployPropert
 	public record Signing(String key, String passphrase) {
 	}
 
-	public record Deploy(String project, String folder, String repository, int threads, Deploy.Build build,
+	/**
+	 * Credentials used to authenticate with an Artifactory server.
+	 *
+	 * @param username the username
+	 * @param password the password
+	 */
+	public record Credentials(String username, String password) {
+	}
+
+	/**
+	 * An additional target to which artifacts are deployed and build info is published.
+	 *
+	 * @param uri the URI of the Artifactory server
+	 * @param username the username used to authenticate with the server
+	 * @param password the password used to authenticate with the server
+	 * @param repository the repository to which artifacts are deployed or {@code null} to
+	 * use the same repository as the primary server
+	 */
+	public record Target(URI uri, String username, String password, String repository) {
+
+		public Target(URI uri, String username, String password, String repository) {
+			Assert.notNull(uri, "artifactory.targets uri is required");
+			this.uri = uri;
+			this.username = username;
+			this.password = password;
+			this.repository = repository;
+		}
+
+		/**
+		 * Return a target that uses the given credentials if this target has none of its
+		 * own.
+		 * @param credentials the credentials to use
+		 * @return a target with credentials
+		 */
+		public Target withDefaultCredentials(Credentials credentials) {
+			return (this.username != null) ? this
+					: new Target(this.uri, credentials.username(), credentials.password(), this.repository);
+		}
+
+	}
+
+	public record Deploy(String project, String folder, String repository, int threads, boolean virtualThreads,
+			boolean adaptiveThreads, DataSize bandwidthLimit, Deploy.Order order, String journal,
+			String checksumCache, boolean checksumFiles, double checksumFilesVerificationRate, boolean skipUnchanged,
+			boolean pipeline, boolean archive, String report, String metrics, String recording, Deploy.Build build,
 			List<Deploy.ArtifactProperties> artifactProperties) {
 
 		public Deploy(String project, String folder, String repository, @DefaultValue("1") int threads,
-				@DefaultValue Deploy.Build build, List<Deploy.ArtifactProperties> artifactProperties) {
+				boolean virtualThreads, boolean adaptiveThreads, DataSize bandwidthLimit,
+				@DefaultValue("path") Deploy.Order order, String journal, String checksumCache, boolean checksumFiles,
+				@DefaultValue("0.1") double checksumFilesVerificationRate, boolean skipUnchanged, boolean pipeline,
+				boolean archive, String report, String metrics, String recording, @DefaultValue Deploy.Build build,
+				List<Deploy.ArtifactProperties> artifactProperties) {
 			Assert.hasText(folder, "artifactory.deploy.folder is required");
 			Assert.hasText(repository, "artifactory.deploy.repository is required");
+			Assert.isTrue(checksumFilesVerificationRate >= 0 && checksumFilesVerificationRate <= 1,
+					"artifactory.deploy.checksum-files-verification-rate must be between 0 and 1");
 			this.project = project;
 			this.folder = folder;
 			this.repository = repository;
 			this.threads = threads;
+			this.virtualThreads = virtualThreads;
+			this.adaptiveThreads = adaptiveThreads;
+			this.bandwidthLimit = bandwidthLimit;
+			this.order = (order != null) ? order : Order.PATH;
+			this.journal = journal;
+			this.checksumCache = checksumCache;
+			this.checksumFiles = checksumFiles;
+			this.checksumFilesVerificationRate = checksumFilesVerificationRate;
+			this.skipUnchanged = skipUnchanged;
+			this.pipeline = pipeline;
+			this.archive = archive;
+			this.report = report;
+			this.metrics = metrics;
+			this.recording = recording;
 			this.build = build;
 			this.artifactProperties = (artifactProperties != null) ? artifactProperties : Collections.emptyList();
 		}
@@ -78,6 +158,23 @@ public record ArtifactoryDeployProperties(@DefaultValue ArtifactoryDeployPropert
 
 		}
 
+		/**
+		 * The order in which artifacts that are ready to be deployed are deployed.
+		 */
+		public enum Order {
+
+			/**
+			 * Deploy artifacts in the order of their paths.
+			 */
+			PATH,
+
+			/**
+			 * Deploy the largest artifacts first.
+			 */
+			LARGEST_FIRST
+
+		}
+
 		public record ArtifactProperties(List<String> include, List<String> exclude, Map<String, String> properties) {
 
 			public ArtifactProperties(List<String> include, List<String> exclude, Map<String, String> properties) {
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.util.Assert;
+
+/**
+ * Wrapper around an {@link ExecutorService} that limits the number of tasks that are
+ * in-flight (queued or running) at any one time. Submitting a task blocks the caller
+ * until there is capacity for it. The limit can be {@link #setLimit(int) changed} while
+ * tasks are in-flight.
+ *
+ * @author Andy Wilkinson
+ */
+class BoundedExecutor implements AutoCloseable {
+
+	private final ExecutorService executor;
+
+	private final ResizableSemaphore permits;
+
+	private int limit;
+
+	BoundedExecutor(ExecutorService executor, int limit) {
+		Assert.notNull(executor, "Executor must not be null");
+		Assert.isTrue(limit > 0, "Limit must be greater than 0");
+		this.executor = executor;
+		this.permits = new ResizableSemaphore(limit);
+		this.limit = limit;
+	}
+
+	/**
+	 * Return the current limit on the number of in-flight tasks.
+	 * @return the limit
+	 */
+	synchronized int getLimit() {
+		return this.limit;
+	}
+
+	/**
+	 * Set the limit on the number of in-flight tasks. When the limit is reduced, tasks
+	 * that are already in-flight are unaffected and no new tasks are submitted until the
+	 * number that are in-flight has dropped below the new limit.
+	 * @param limit the new limit
+	 */
+	synchronized void setLimit(int limit) {
+		Assert.isTrue(limit > 0, "Limit must be greater than 0");
+		int delta = limit - this.limit;
+		if (delta > 0) {
+			this.permits.release(delta);
+		}
+		else if (delta < 0) {
+			this.permits.reducePermits(-delta);
+		}
+		this.limit = limit;
+	}
+
+	/**
+	 * Submit the given task for execution, blocking until there is capacity for it.
+	 * @param task the task to execute
+	 * @return a future that completes once the task has run
+	 * @throws InterruptedException if interrupted while waiting for capacity
+	 */
+	CompletableFuture<Void> submit(Runnable task) throws InterruptedException {
+		this.permits.acquire();
+		try {
+			return CompletableFuture.runAsync(task, this.executor).whenComplete((result, ex) -> this.permits.release());
+		}
+		catch (RejectedExecutionException ex) {
+			this.permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Cancel all tasks, interrupting those that are running and discarding those that are
+	 * queued. No further tasks can be submitted once the executor has been cancelled.
+	 */
+	void cancel() {
+		this.executor.shutdownNow();
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * {@link Semaphore} that allows its permits to be reduced.
+	 */
+	private static final class ResizableSemaphore extends Semaphore {
+
+		private static final long serialVersionUID = 1L;
+
+		ResizableSemaphore(int permits) {
+			super(permits);
+		}
+
+		@Override
+		protected void reducePermits(int reduction) {
+			super.reducePermits(reduction);
+		}
+
+	}
+
+}
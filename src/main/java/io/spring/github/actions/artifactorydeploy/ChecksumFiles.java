@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.ChecksumCache;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.Checksums;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableFileArtifact;
+import io.spring.github.actions.artifactorydeploy.io.Checksum;
+
+import org.springframework.util.Assert;
+
+/**
+ * Support for using the checksum files that a build tool wrote alongside each artifact
+ * rather than hashing the artifact. An artifact's checksum files are used when it has
+ * both {@code .sha1} and {@code .md5} files, with a {@code .sha256} file also being used
+ * when present. A checksum file that was last modified before its artifact is stale and
+ * is ignored. A sample of the artifacts is hashed anyway and deployment fails if the
+ * result does not match their checksum files.
+ *
+ * @author Andy Wilkinson
+ */
+class ChecksumFiles {
+
+	private final double verificationRate;
+
+	private final DoubleSupplier random;
+
+	private final AtomicInteger used = new AtomicInteger();
+
+	private final AtomicInteger verified = new AtomicInteger();
+
+	/**
+	 * Create a new {@code ChecksumFiles}.
+	 * @param verificationRate the proportion, between 0 and 1, of artifacts whose checksum
+	 * files are verified
+	 * @param random supplier of random numbers between 0 (inclusive) and 1 (exclusive)
+	 */
+	ChecksumFiles(double verificationRate, DoubleSupplier random) {
+		this.verificationRate = verificationRate;
+		this.random = random;
+	}
+
+	/**
+	 * Create a {@link DeployableFileArtifact} for the given file, using the file's
+	 * checksum files when they are available.
+	 * @param path the path of the artifact
+	 * @param file the file
+	 * @param properties the properties of the artifact
+	 * @param checksumCache the checksum cache or {@code null}
+	 * @return the artifact
+	 */
+	DeployableFileArtifact createArtifact(String path, File file, Map<String, String> properties,
+			ChecksumCache checksumCache) {
+		Checksums checksums = read(file);
+		if (checksums == null) {
+			return new DeployableFileArtifact(path, file, properties, null, checksumCache);
+		}
+		this.used.incrementAndGet();
+		if (this.random.getAsDouble() < this.verificationRate) {
+			this.verified.incrementAndGet();
+			return new VerifiedFileArtifact(path, file, properties, checksums);
+		}
+		return new DeployableFileArtifact(path, file, properties, checksums);
+	}
+
+	/**
+	 * Return the number of artifacts whose checksum files were used.
+	 * @return the number of artifacts
+	 */
+	int getUsed() {
+		return this.used.get();
+	}
+
+	/**
+	 * Return the number of artifacts whose checksum files were verified.
+	 * @return the number of artifacts
+	 */
+	int getVerified() {
+		return this.verified.get();
+	}
+
+	private Checksums read(File file) {
+		String sha1 = read(file, Checksum.SHA1);
+		String md5 = read(file, Checksum.MD5);
+		if (sha1 == null || md5 == null) {
+			return null;
+		}
+		return new Checksums(sha1, md5, read(file, Checksum.SHA256));
+	}
+
+	private String read(File file, Checksum checksum) {
+		File checksumFile = new File(file.getParentFile(), file.getName() + checksum.getFileExtension());
+		if (!checksumFile.isFile() || checksumFile.lastModified() < file.lastModified()) {
+			return null;
+		}
+		try {
+			// Some tools write the name of the file after the checksum
+			String content = Files.readString(checksumFile.toPath(), StandardCharsets.UTF_8).strip();
+			String value = content.split("\\s+", 2)[0].toLowerCase();
+			checksum.validate(value);
+			return value;
+		}
+		catch (IOException | IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * {@link DeployableFileArtifact} that is hashed when its checksums are first needed,
+	 * failing if the result does not match the checksums read from its checksum files. The
+	 * checksum cache is not used as the content must be read for it to be verified.
+	 */
+	private static final class VerifiedFileArtifact extends DeployableFileArtifact {
+
+		private final File file;
+
+		private final Checksums expected;
+
+		private boolean verified;
+
+		VerifiedFileArtifact(String path, File file, Map<String, String> properties, Checksums expected) {
+			super(path, file, properties, null);
+			this.file = file;
+			this.expected = expected;
+		}
+
+		@Override
+		public synchronized Checksums getChecksums() {
+			Checksums checksums = super.getChecksums();
+			if (!this.verified) {
+				Assert.state(matches(checksums),
+						() -> "Checksum files of '%s' do not match its content. Expected %s but was %s"
+							.formatted(this.file, this.expected, checksums));
+				this.verified = true;
+			}
+			return checksums;
+		}
+
+		private boolean matches(Checksums checksums) {
+			return this.expected.getSha1().equalsIgnoreCase(checksums.getSha1())
+					&& this.expected.getMd5().equalsIgnoreCase(checksums.getMd5())
+					&& (this.expected.getSha256() == null
+							|| this.expected.getSha256().equalsIgnoreCase(checksums.getSha256()));
+		}
+
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.util.List;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.io.FileSet.Category;
+
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * An item of work that is scheduled by the {@link DeploymentScheduler}. It is either a
+ * {@link SingleArtifact single artifact} or an {@link ArtifactArchive archive} of small
+ * artifacts that are all in the same directory.
+ *
+ * @author Andy Wilkinson
+ */
+sealed interface Deployable {
+
+	/**
+	 * Return the directory that contains the artifacts, including a trailing slash.
+	 * @return the directory
+	 */
+	String directory();
+
+	/**
+	 * Return the artifacts that are deployed.
+	 * @return the artifacts
+	 */
+	List<DeployableArtifact> artifacts();
+
+	/**
+	 * Return the total size of the artifacts.
+	 * @return the size
+	 */
+	default long size() {
+		return artifacts().stream().mapToLong(DeployableArtifact::getSize).sum();
+	}
+
+	/**
+	 * Return a description of the deployable suitable for logging.
+	 * @return the description
+	 */
+	String description();
+
+	/**
+	 * Return the given batched artifacts with each artifact deployed individually.
+	 * @param batchedArtifacts the batched artifacts
+	 * @return the batched deployables
+	 */
+	static MultiValueMap<Category, Deployable> of(MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
+		MultiValueMap<Category, Deployable> deployables = new LinkedMultiValueMap<>();
+		batchedArtifacts.forEach((category, artifacts) -> artifacts
+			.forEach((artifact) -> deployables.add(category, new SingleArtifact(artifact))));
+		return deployables;
+	}
+
+	private static String getDirectory(String path) {
+		return path.substring(0, path.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * A single artifact that is deployed on its own.
+	 *
+	 * @param artifact the artifact
+	 */
+	record SingleArtifact(DeployableArtifact artifact) implements Deployable {
+
+		@Override
+		public String directory() {
+			return getDirectory(this.artifact.getPath());
+		}
+
+		@Override
+		public List<DeployableArtifact> artifacts() {
+			return List.of(this.artifact);
+		}
+
+		@Override
+		public long size() {
+			return this.artifact.getSize();
+		}
+
+		@Override
+		public String description() {
+			return this.artifact.getPath();
+		}
+
+	}
+
+	/**
+	 * Small artifacts from the same directory that are deployed together in a single
+	 * archive. The archive itself is created by
+	 * {@link Artifactory#deployArchive(String, List)}.
+	 *
+	 * @param directory the directory that contains the artifacts
+	 * @param artifacts the archived artifacts
+	 */
+	record ArtifactArchive(String directory, List<DeployableArtifact> artifacts) implements Deployable {
+
+		public ArtifactArchive {
+			Assert.notEmpty(artifacts, "Artifacts must not be empty");
+			Assert.isTrue(artifacts.stream().allMatch((artifact) -> getDirectory(artifact.getPath()).equals(directory)),
+					"Artifacts must all be in the same directory");
+		}
+
+		@Override
+		public String description() {
+			return "archive of %d artifacts in %s".formatted(this.artifacts.size(), this.directory);
+		}
+
+	}
+
+}
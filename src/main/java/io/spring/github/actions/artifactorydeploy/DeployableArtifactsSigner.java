@@ -18,6 +18,7 @@ package io.spring.github.actions.artifactorydeploy;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.Checksums;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableFileArtifact;
 import io.spring.github.actions.artifactorydeploy.io.FileSet.Category;
 import io.spring.github.actions.artifactorydeploy.openpgp.ArmoredAsciiSigner;
 import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
@@ -37,7 +39,9 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 /**
- * Utility to sign a set of batched {@link DeployableArtifact DeployableArtifacts}.
+ * Utility to sign a set of batched {@link DeployableArtifact DeployableArtifacts}. Each
+ * artifact is signed when its signature's content, size, or checksums are first needed,
+ * allowing signing to happen concurrently with deployment.
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
@@ -87,26 +91,47 @@ class DeployableArtifactsSigner {
 		return name.toLowerCase().endsWith(FILE_EXTENSION);
 	}
 
+	/**
+	 * {@link DeployableArtifact} for the signature of another artifact. The signature is
+	 * created the first time that its content, size, or checksums are required. When the
+	 * signed artifact is a {@link DeployableFileArtifact} its checksums are calculated
+	 * from the same read of its content.
+	 */
 	private class ArtifactSignature implements DeployableArtifact {
 
+		private final DeployableArtifact artifact;
+
 		private final String path;
 
 		private final FileSystemResource signatureResource;
 
-		private final long size;
+		private long size;
 
 		private Checksums checksums;
 
 		ArtifactSignature(DeployableArtifact artifact) {
+			this.artifact = artifact;
+			this.path = artifact.getPath() + FILE_EXTENSION;
+			this.signatureResource = new FileSystemResource(new File(temp, artifact.getPath()));
+		}
+
+		private synchronized void sign() {
+			if (this.checksums != null) {
+				return;
+			}
 			try {
-				this.path = artifact.getPath() + FILE_EXTENSION;
-				File signatureFile = new File(temp, artifact.getPath());
-				this.signatureResource = new FileSystemResource(signatureFile);
+				File signatureFile = this.signatureResource.getFile();
 				signatureFile.getParentFile().mkdirs();
 				signatureFile.deleteOnExit();
-				console.debug("Signing {}", artifact.getPath());
-				DeployableArtifactsSigner.this.signer.sign(artifact.getContent().getInputStream(),
-						this.signatureResource.getOutputStream());
+				console.debug("Signing {}", this.artifact.getPath());
+				ArmoredAsciiSigner signer = DeployableArtifactsSigner.this.signer;
+				OutputStream destination = this.signatureResource.getOutputStream();
+				if (this.artifact instanceof DeployableFileArtifact fileArtifact) {
+					fileArtifact.readContent((content) -> signer.sign(content, destination));
+				}
+				else {
+					signer.sign(this.artifact.getContent().getInputStream(), destination);
+				}
 				this.size = this.signatureResource.contentLength();
 				this.checksums = Checksums.calculate(this.signatureResource);
 			}
@@ -122,11 +147,13 @@ class DeployableArtifactsSigner {
 
 		@Override
 		public Resource getContent() {
+			sign();
 			return this.signatureResource;
 		}
 
 		@Override
 		public long getSize() {
+			sign();
 			return this.size;
 		}
 
@@ -137,6 +164,7 @@ class DeployableArtifactsSigner {
 
 		@Override
 		public Checksums getChecksums() {
+			sign();
 			return this.checksums;
 		}
 
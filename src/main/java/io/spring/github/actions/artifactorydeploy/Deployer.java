@@ -18,27 +18,39 @@ package io.spring.github.actions.artifactorydeploy;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.function.Function;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.ArtifactProperties;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Build;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Order;
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Signing;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Target;
+import io.spring.github.actions.artifactorydeploy.Deployable.ArtifactArchive;
+import io.spring.github.actions.artifactorydeploy.Deployable.SingleArtifact;
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
 import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory;
 import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory.BuildRun;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildModule;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.ChecksumCache;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableFileArtifact;
 import io.spring.github.actions.artifactorydeploy.io.DirectoryScanner;
@@ -50,9 +62,12 @@ import io.spring.github.actions.artifactorydeploy.maven.MavenCoordinates;
 import io.spring.github.actions.artifactorydeploy.maven.MavenVersionType;
 import io.spring.github.actions.artifactorydeploy.openpgp.ArmoredAsciiSigner;
 import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
+import io.spring.github.actions.artifactorydeploy.system.VirtualThreads;
 
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.ObjectUtils;
@@ -75,6 +90,18 @@ public class Deployer {
 	private static final Set<String> CHECKSUM_FILE_EXTENSIONS = Collections
 		.unmodifiableSet(new HashSet<>(Arrays.asList(".md5", ".sha1", ".sha256", ".sha512")));
 
+	private static final String THREAD_NAME_PREFIX = "artifactory-deploy-";
+
+	private static final String PREPARE_THREAD_NAME_PREFIX = "artifactory-prepare-";
+
+	private static final int IN_FLIGHT_PER_THREAD = 2;
+
+	private static final int PREPARED_PER_THREAD = 4;
+
+	private static final long MAX_ARCHIVED_SIZE = 10 * 1024;
+
+	private static final int MAX_ARCHIVE_ENTRIES = 1000;
+
 	private static final ConsoleLogger console = new ConsoleLogger();
 
 	private final ArtifactoryDeployProperties artifactoryProperties;
@@ -83,31 +110,139 @@ public class Deployer {
 
 	private final DirectoryScanner directoryScanner;
 
-	public Deployer(ArtifactoryDeployProperties properties, Artifactory artifactory,
-			DirectoryScanner directoryScanner) {
+	private final AdaptiveConcurrencyController concurrencyController;
+
+	private final DeploymentReport report;
+
+	private final DeploymentMetrics metrics;
+
+	Deployer(ArtifactoryDeployProperties properties, Artifactory artifactory, DirectoryScanner directoryScanner,
+			AdaptiveConcurrencyController concurrencyController, DeploymentReport report, DeploymentMetrics metrics) {
 		this.artifactoryProperties = properties;
 		this.artifactory = artifactory;
 		this.directoryScanner = directoryScanner;
+		this.concurrencyController = concurrencyController;
+		this.report = report;
+		this.metrics = metrics;
 	}
 
 	public void deploy() {
 		Instant started = Instant.now();
 		Map<String, String> buildProperties = getBuildProperties(this.artifactoryProperties.deploy().build().number(),
 				started);
-		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = getBatchedArtifacts(buildProperties);
-		batchedArtifacts = signArtifactsIfNecessary(batchedArtifacts, buildProperties);
-		int size = batchedArtifacts.values().stream().mapToInt(List::size).sum();
-		Assert.state(size > 0, "No artifacts found to deploy");
-		console.log("Deploying {} artifacts to {} in {} as build {} of {} using {} thread(s)", size,
-				this.artifactoryProperties.deploy().repository(), this.artifactoryProperties.server().uri(),
-				this.artifactoryProperties.deploy().build().number(),
-				this.artifactoryProperties.deploy().build().name(), this.artifactoryProperties.deploy().threads());
-		deployArtifacts(batchedArtifacts);
-		addBuildRun(this.artifactoryProperties.deploy().build().number(), started, batchedArtifacts);
-		console.debug("Done");
-	}
-
-	private MultiValueMap<Category, DeployableArtifact> getBatchedArtifacts(Map<String, String> buildProperties) {
+		ChecksumCache checksumCache = loadChecksumCache();
+		ChecksumFiles checksumFiles = this.artifactoryProperties.deploy().checksumFiles()
+				? new ChecksumFiles(this.artifactoryProperties.deploy().checksumFilesVerificationRate(),
+						() -> ThreadLocalRandom.current().nextDouble())
+				: null;
+		try {
+			MultiValueMap<Category, DeployableArtifact> batchedArtifacts = signArtifactsIfNecessary(
+					time(Phase.SCAN, () -> getBatchedArtifacts(buildProperties, checksumCache, checksumFiles)),
+					buildProperties);
+			if (checksumFiles != null) {
+				console.log("Using checksum files for {} artifacts, verifying {} of them", checksumFiles.getUsed(),
+						checksumFiles.getVerified());
+			}
+			int size = batchedArtifacts.values().stream().mapToInt(List::size).sum();
+			Assert.state(size > 0, "No artifacts found to deploy");
+			this.report.artifacts(batchedArtifacts);
+			console.log("Deploying {} artifacts to {} in {} as build {} of {} using {}{} {}thread(s)", size,
+					this.artifactoryProperties.deploy().repository(), this.artifactoryProperties.server().uri(),
+					this.artifactoryProperties.deploy().build().number(),
+					this.artifactoryProperties.deploy().build().name(),
+					this.artifactoryProperties.deploy().adaptiveThreads() ? "up to " : "",
+					this.artifactoryProperties.deploy().threads(),
+					this.artifactoryProperties.deploy().virtualThreads() ? "virtual " : "");
+			for (Target target : this.artifactoryProperties.targets()) {
+				console.log("Also deploying to {} in {}", (target.repository() != null) ? target.repository()
+						: this.artifactoryProperties.deploy().repository(), target.uri());
+			}
+			time(Phase.UPLOAD, () -> deployArtifacts(batchedArtifacts));
+			time(Phase.BUILD_INFO,
+					() -> addBuildRun(this.artifactoryProperties.deploy().build().number(), started, batchedArtifacts));
+			console.debug("Done");
+		}
+		finally {
+			writeReport();
+			writeMetrics();
+			saveChecksumCache(checksumCache);
+		}
+	}
+
+	private void time(Phase phase, Runnable action) {
+		time(phase, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	private <T> T time(Phase phase, Supplier<T> action) {
+		PhaseEvent event = new PhaseEvent(phase);
+		event.begin();
+		try {
+			return measure(phase, action);
+		}
+		finally {
+			event.commit();
+		}
+	}
+
+	private <T> T measure(Phase phase, Supplier<T> action) {
+		return this.metrics.time(phase, () -> this.report.time(phase, action));
+	}
+
+	private void writeReport() {
+		String reportFile = this.artifactoryProperties.deploy().report();
+		try {
+			this.report.write(StringUtils.hasText(reportFile) ? Path.of(reportFile) : null);
+		}
+		catch (IOException ex) {
+			console.log("Unable to write deployment report ({})", ex.getMessage());
+		}
+	}
+
+	private void writeMetrics() {
+		String metricsFile = this.artifactoryProperties.deploy().metrics();
+		if (!StringUtils.hasText(metricsFile)) {
+			return;
+		}
+		try {
+			this.metrics.write(Path.of(metricsFile));
+		}
+		catch (IOException ex) {
+			console.log("Unable to write deployment metrics ({})", ex.getMessage());
+		}
+	}
+
+	private ChecksumCache loadChecksumCache() {
+		String checksumCacheFile = this.artifactoryProperties.deploy().checksumCache();
+		if (!StringUtils.hasText(checksumCacheFile)) {
+			return null;
+		}
+		try {
+			return ChecksumCache.load(Path.of(checksumCacheFile));
+		}
+		catch (IOException ex) {
+			console.log("Unable to load checksum cache ({}). Calculating all checksums.", ex.getMessage());
+			return null;
+		}
+	}
+
+	private void saveChecksumCache(ChecksumCache checksumCache) {
+		if (checksumCache == null) {
+			return;
+		}
+		console.debug("Used cached checksums for {} files", checksumCache.getHits());
+		try {
+			checksumCache.save();
+		}
+		catch (IOException ex) {
+			console.log("Unable to save checksum cache ({})", ex.getMessage());
+		}
+	}
+
+	private MultiValueMap<Category, DeployableArtifact> getBatchedArtifacts(Map<String, String> buildProperties,
+			ChecksumCache checksumCache, ChecksumFiles checksumFiles) {
 		File root = new File(this.artifactoryProperties.deploy().folder());
 		Assert.state(!ObjectUtils.isEmpty(root.listFiles()),
 				() -> "No artifacts found in empty directory '%s'".formatted(root.getAbsolutePath()));
@@ -123,7 +258,10 @@ public class Deployer {
 				properties.putAll(getArtifactProperties(path));
 				path = stripSnapshotTimestamp(path);
 				if (paths.add(path)) {
-					batchedArtifacts.add(category, new DeployableFileArtifact(path, file, properties, null));
+					batchedArtifacts.add(category,
+							(checksumFiles != null)
+									? checksumFiles.createArtifact(path, file, properties, checksumCache)
+									: new DeployableFileArtifact(path, file, properties, null, checksumCache));
 				}
 			});
 		});
@@ -185,37 +323,223 @@ public class Deployer {
 	}
 
 	private void deployArtifacts(MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
-		ExecutorService executor = Executors.newFixedThreadPool(this.artifactoryProperties.deploy().threads());
-		Function<DeployableArtifact, CompletableFuture<?>> deployer = (deployableArtifact) -> getArtifactDeployer(
-				deployableArtifact);
-		try {
-			batchedArtifacts.forEach((category, artifacts) -> deploy(category, artifacts, deployer));
+		String journalFile = this.artifactoryProperties.deploy().journal();
+		if (!StringUtils.hasText(journalFile)) {
+			deployUndeployedArtifacts(batchedArtifacts, null);
+			return;
 		}
-		finally {
-			executor.shutdown();
+		Build build = this.artifactoryProperties.deploy().build();
+		try (DeploymentJournal journal = DeploymentJournal.open(Path.of(journalFile), build.name(), build.number())) {
+			deployUndeployedArtifacts(batchedArtifacts, journal);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to use deployment journal '%s'".formatted(journalFile), ex);
 		}
 	}
 
-	private void deploy(Category category, List<DeployableArtifact> artifacts,
-			Function<DeployableArtifact, CompletableFuture<?>> deployer) {
-		console.debug("Deploying {} artifacts", category);
-		deploy(artifacts.stream().map(deployer).toArray(CompletableFuture[]::new));
+	private void deployUndeployedArtifacts(MultiValueMap<Category, DeployableArtifact> batchedArtifacts,
+			DeploymentJournal journal) {
+		Map<String, String> existing = getExistingSha1Checksums(batchedArtifacts);
+		AtomicInteger journaled = new AtomicInteger();
+		AtomicInteger unchanged = new AtomicInteger();
+		Predicate<DeployableArtifact> undeployed = (artifact) -> {
+			if (journal != null && journal.contains(artifact)) {
+				console.debug("Skipping {} as it has already been deployed", artifact.getPath());
+				journaled.incrementAndGet();
+				return false;
+			}
+			if (artifact.getChecksums().getSha1().equalsIgnoreCase(existing.get(artifact.getPath()))) {
+				console.debug("Skipping {} as it is unchanged", artifact.getPath());
+				unchanged.incrementAndGet();
+				return false;
+			}
+			return true;
+		};
+		deployArtifacts(batchedArtifacts, (deployable) -> {
+			List<DeployableArtifact> deployed = deployable.artifacts().stream().filter(undeployed).toList();
+			if (deployable instanceof ArtifactArchive && deployed.size() > 1) {
+				deployArchive(deployed);
+			}
+			else {
+				deployed.forEach(this::deployArtifact);
+			}
+			deployed.forEach(this.report::deployed);
+			if (journal != null) {
+				deployed.forEach(journal::add);
+			}
+		});
+		if (journaled.get() > 0) {
+			console.log("Skipped {} artifacts that were deployed by a previous run", journaled.get());
+		}
+		if (unchanged.get() > 0) {
+			console.log("Skipped {} artifacts that are unchanged in {}", unchanged.get(),
+					this.artifactoryProperties.deploy().repository());
+		}
 	}
 
-	private void deploy(CompletableFuture<?>[] batch) {
+	private Map<String, String> getExistingSha1Checksums(MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
+		if (!this.artifactoryProperties.deploy().skipUnchanged() || batchedArtifacts.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		List<String> paths = batchedArtifacts.values()
+			.stream()
+			.flatMap(List::stream)
+			.map(DeployableArtifact::getPath)
+			.toList();
 		try {
-			CompletableFuture.allOf(batch).get();
+			return this.artifactory.getSha1Checksums(this.artifactoryProperties.deploy().repository(), paths);
+		}
+		catch (RuntimeException ex) {
+			console.log("Unable to find existing artifacts ({}). Deploying all artifacts.", ex.getMessage());
+			return Collections.emptyMap();
 		}
-		catch (ExecutionException ex) {
-			throw new RuntimeException(ex);
+	}
+
+	private void deployArtifacts(MultiValueMap<Category, DeployableArtifact> batchedArtifacts,
+			Consumer<Deployable> deployer) {
+		boolean adaptive = this.artifactoryProperties.deploy().adaptiveThreads();
+		ExecutorService preparationExecutor = createPreparationExecutor();
+		Map<String, DeployableArtifact> signatures = getSignatures(batchedArtifacts);
+		try (BoundedExecutor executor = createExecutor()) {
+			if (adaptive) {
+				this.concurrencyController.start(executor);
+			}
+			try {
+				createScheduler(executor, deployer, preparationExecutor, signatures)
+					.deploy(getDeployables(batchedArtifacts));
+			}
+			finally {
+				if (adaptive) {
+					this.concurrencyController.stop();
+				}
+			}
 		}
 		catch (InterruptedException ex) {
 			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while deploying", ex);
+		}
+		finally {
+			if (preparationExecutor != null) {
+				preparationExecutor.shutdownNow();
+			}
+		}
+	}
+
+	private Map<String, DeployableArtifact> getSignatures(
+			MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
+		List<DeployableArtifact> signatures = batchedArtifacts.get(Category.SIGNATURE);
+		if (CollectionUtils.isEmpty(signatures)) {
+			return Collections.emptyMap();
+		}
+		Map<String, DeployableArtifact> signaturesBySignedPath = new HashMap<>();
+		for (DeployableArtifact signature : signatures) {
+			String path = signature.getPath();
+			signaturesBySignedPath.put(path.substring(0, path.length() - ".asc".length()), signature);
+		}
+		return signaturesBySignedPath;
+	}
+
+	private DeploymentScheduler createScheduler(BoundedExecutor executor, Consumer<Deployable> deployer,
+			ExecutorService preparationExecutor, Map<String, DeployableArtifact> signatures) {
+		Order order = this.artifactoryProperties.deploy().order();
+		if (preparationExecutor == null) {
+			return new DeploymentScheduler(executor, (deployable) -> {
+				prepare(deployable, signatures);
+				deployer.accept(deployable);
+			}, order);
+		}
+		return new DeploymentScheduler(executor, deployer, order,
+				(category, deployable) -> CompletableFuture.runAsync(() -> prepare(deployable, signatures),
+						preparationExecutor),
+				this.artifactoryProperties.deploy().threads() * PREPARED_PER_THREAD);
+	}
+
+	private void prepare(Deployable deployable, Map<String, DeployableArtifact> signatures) {
+		deployable.artifacts().forEach((artifact) -> prepare(artifact, signatures));
+	}
+
+	private void prepare(DeployableArtifact artifact, Map<String, DeployableArtifact> signatures) {
+		DeployableArtifact signature = signatures.get(artifact.getPath());
+		if (signature != null) {
+			// Sign first so that a file's checksums are calculated from the same read
+			prepare(signature, signatures);
+		}
+		// Signatures are signed when their checksums are first needed
+		Phase phase = artifact.getPath().endsWith(".asc") ? Phase.SIGN : Phase.CHECKSUM;
+		ArtifactEvent event = new ArtifactEvent(phase, artifact);
+		event.begin();
+		measure(phase, artifact::getChecksums);
+		event.size = artifact.getSize();
+		event.commit();
+	}
+
+	private MultiValueMap<Category, Deployable> getDeployables(
+			MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
+		if (!this.artifactoryProperties.deploy().archive()) {
+			return Deployable.of(batchedArtifacts);
+		}
+		MultiValueMap<Category, Deployable> deployables = new LinkedMultiValueMap<>();
+		batchedArtifacts.forEach((category, artifacts) -> {
+			Map<ArchiveKey, List<DeployableArtifact>> archivable = new LinkedHashMap<>();
+			for (DeployableArtifact artifact : artifacts) {
+				// Signatures are always small and are not signed until their size is needed
+				if (category == Category.SIGNATURE || artifact.getSize() <= MAX_ARCHIVED_SIZE) {
+					archivable.computeIfAbsent(new ArchiveKey(artifact), (key) -> new ArrayList<>()).add(artifact);
+				}
+				else {
+					deployables.add(category, new SingleArtifact(artifact));
+				}
+			}
+			archivable.forEach((key, archived) -> {
+				if (archived.size() == 1) {
+					deployables.add(category, new SingleArtifact(archived.get(0)));
+					return;
+				}
+				for (int i = 0; i < archived.size(); i += MAX_ARCHIVE_ENTRIES) {
+					List<DeployableArtifact> entries = archived.subList(i,
+							Math.min(i + MAX_ARCHIVE_ENTRIES, archived.size()));
+					deployables.add(category, new ArtifactArchive(key.directory(), entries));
+				}
+			});
+		});
+		return deployables;
+	}
+
+	private ExecutorService createPreparationExecutor() {
+		if (!this.artifactoryProperties.deploy().pipeline()) {
+			return null;
+		}
+		return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				new CustomizableThreadFactory(PREPARE_THREAD_NAME_PREFIX));
+	}
+
+	private BoundedExecutor createExecutor() {
+		int threads = this.artifactoryProperties.deploy().threads();
+		if (useVirtualThreads()) {
+			return new BoundedExecutor(VirtualThreads.newThreadPerTaskExecutor(THREAD_NAME_PREFIX), threads);
 		}
+		ExecutorService executorService = Executors.newFixedThreadPool(threads,
+				new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+		return new BoundedExecutor(executorService, threads * IN_FLIGHT_PER_THREAD);
 	}
 
-	private CompletableFuture<?> getArtifactDeployer(DeployableArtifact deployableArtifact) {
-		return CompletableFuture.runAsync(() -> deployArtifact(deployableArtifact));
+	private boolean useVirtualThreads() {
+		if (!this.artifactoryProperties.deploy().virtualThreads()) {
+			return false;
+		}
+		if (!VirtualThreads.isSupported()) {
+			console.log("Virtual threads are not supported by Java {}. Falling back to platform threads.",
+					System.getProperty("java.specification.version"));
+			return false;
+		}
+		return true;
+	}
+
+	private void deployArchive(List<DeployableArtifact> artifacts) {
+		console.log("Deploying {} artifacts in an archive", artifacts.size());
+		artifacts.forEach((artifact) -> console.debug("Archiving {} {} ({}/{})", artifact.getPath(),
+				artifact.getProperties(), artifact.getChecksums().getSha1(), artifact.getChecksums().getMd5()));
+		this.artifactory.deployArchive(this.artifactoryProperties.deploy().repository(), artifacts);
 	}
 
 	private void deployArtifact(DeployableArtifact deployableArtifact) {
@@ -253,4 +577,18 @@ public class Deployer {
 				new BuildRun(buildNumber, started, this.artifactoryProperties.deploy().build().uri(), modules));
 	}
 
+	/**
+	 * Key used to group artifacts that can be deployed in the same archive.
+	 *
+	 * @param directory the directory that contains the artifacts
+	 * @param properties the properties of the artifacts
+	 */
+	private record ArchiveKey(String directory, Map<String, String> properties) {
+
+		ArchiveKey(DeployableArtifact artifact) {
+			this(artifact.getPath().substring(0, artifact.getPath().lastIndexOf('/') + 1), artifact.getProperties());
+		}
+
+	}
+
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+
+/**
+ * Journal of the artifacts that have been deployed as part of a build, allowing an
+ * interrupted deployment of the same build to be resumed without redeploying the
+ * artifacts that it had already deployed. The journal is a text file with a header line
+ * that identifies the build followed by a line for each deployed artifact containing its
+ * SHA-1, size, and path.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentJournal implements Closeable {
+
+	private final Map<String, Entry> entries;
+
+	private final BufferedWriter writer;
+
+	private DeploymentJournal(Map<String, Entry> entries, BufferedWriter writer) {
+		this.entries = entries;
+		this.writer = writer;
+	}
+
+	/**
+	 * Return whether the journal records the given artifact as having been deployed with
+	 * its current content.
+	 * @param artifact the artifact
+	 * @return {@code true} if the artifact has been deployed, otherwise {@code false}
+	 */
+	boolean contains(DeployableArtifact artifact) {
+		Entry entry = this.entries.get(artifact.getPath());
+		return entry != null && entry.size() == artifact.getSize()
+				&& entry.sha1().equals(artifact.getChecksums().getSha1());
+	}
+
+	/**
+	 * Record that the given artifact has been deployed.
+	 * @param artifact the artifact
+	 */
+	synchronized void add(DeployableArtifact artifact) {
+		try {
+			this.writer.write(new Entry(artifact.getChecksums().getSha1(), artifact.getSize(), artifact.getPath())
+				.toString());
+			this.writer.newLine();
+			this.writer.flush();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to record deployment of " + artifact.getPath(), ex);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.writer.close();
+	}
+
+	/**
+	 * Open the journal in the given file for the given build. Entries that were recorded
+	 * for a different build are discarded.
+	 * @param file the journal file
+	 * @param buildName the name of the build
+	 * @param buildNumber the number of the build
+	 * @return the journal
+	 * @throws IOException if the journal cannot be opened
+	 */
+	static DeploymentJournal open(Path file, String buildName, int buildNumber) throws IOException {
+		String header = "# " + buildName + " " + buildNumber;
+		Map<String, Entry> entries = new HashMap<>();
+		if (Files.isRegularFile(file)) {
+			String content = Files.readString(file, StandardCharsets.UTF_8);
+			List<String> lines = content.lines().toList();
+			if (!lines.isEmpty() && lines.get(0).equals(header)) {
+				for (String line : lines.subList(1, lines.size())) {
+					Entry entry = Entry.parse(line);
+					if (entry != null) {
+						entries.put(entry.path(), entry);
+					}
+				}
+				BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+						StandardOpenOption.APPEND);
+				if (!content.endsWith("\n")) {
+					writer.newLine();
+				}
+				return new DeploymentJournal(entries, writer);
+			}
+		}
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+		writer.write(header);
+		writer.newLine();
+		writer.flush();
+		return new DeploymentJournal(entries, writer);
+	}
+
+	private record Entry(String sha1, long size, String path) {
+
+		@Override
+		public String toString() {
+			return this.sha1 + " " + this.size + " " + this.path;
+		}
+
+		static Entry parse(String line) {
+			String[] components = line.split(" ", 3);
+			if (components.length != 3) {
+				return null;
+			}
+			try {
+				return new Entry(components[0], Long.parseLong(components[1]), components[2]);
+			}
+			catch (NumberFormatException ex) {
+				return null;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployListener;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer metrics for a deployment. The time spent in each {@link Phase} is recorded
+ * along with the duration, outcome, and status of each request that was made to deploy
+ * an artifact, the number of bytes that were uploaded, the number of retries, and how
+ * often deploying by checksum succeeded or fell back to uploading the artifact's
+ * content. A fallback is only counted when content is uploaded after a failed checksum
+ * deploy of the same artifact to the same target. Metrics for deploy requests are tagged with the URI of the target to which
+ * they were made so that deploying to additional targets does not inflate the metrics of
+ * the primary. The metrics can be written to a file in the Prometheus text format.
+ *
+ * @author Andy Wilkinson
+ */
+@Component
+class DeploymentMetrics implements DeployListener {
+
+	private final PrometheusMeterRegistry registry;
+
+	private final Set<ChecksumFailure> checksumFailures = ConcurrentHashMap.newKeySet();
+
+	DeploymentMetrics() {
+		this(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+	}
+
+	DeploymentMetrics(PrometheusMeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Run the given action, recording the time that it takes against the given phase.
+	 * @param phase the phase
+	 * @param action the action to run
+	 */
+	void time(Phase phase, Runnable action) {
+		phaseTimer(phase).record(action);
+	}
+
+	/**
+	 * Call the given action, recording the time that it takes against the given phase.
+	 * @param <T> the type of the action's result
+	 * @param phase the phase
+	 * @param action the action to call
+	 * @return the result of the action
+	 */
+	<T> T time(Phase phase, Supplier<T> action) {
+		return phaseTimer(phase).record(action);
+	}
+
+	private Timer phaseTimer(Phase phase) {
+		return Timer.builder("artifactory.deploy.phase")
+			.description("Time spent in each phase of the deployment")
+			.tag("phase", phase.name().toLowerCase())
+			.register(this.registry);
+	}
+
+	@Override
+	public void attemptCompleted(DeployAttempt attempt) {
+		String target = attempt.target().toString();
+		Timer.builder("artifactory.deploy.requests")
+			.description("Requests made to deploy artifacts")
+			.tag("target", target)
+			.tag("mode", attempt.mode().name().toLowerCase())
+			.tag("status", (attempt.status() != null) ? Integer.toString(attempt.status().value()) : "none")
+			.tag("outcome", attempt.isSuccessful() ? "success" : "failure")
+			.register(this.registry)
+			.record(attempt.duration());
+		if (attempt.number() > 1) {
+			Counter.builder("artifactory.deploy.retries")
+				.description("Number of requests that retried an earlier failed request")
+				.tag("target", target)
+				.register(this.registry)
+				.increment();
+		}
+		ChecksumFailure checksumFailure = new ChecksumFailure(attempt.target(), attempt.artifact().getPath());
+		if (attempt.mode() == Mode.CHECKSUM) {
+			if (attempt.isSuccessful()) {
+				this.checksumFailures.remove(checksumFailure);
+				countChecksumResult(target, "hit");
+			}
+			else {
+				this.checksumFailures.add(checksumFailure);
+			}
+			return;
+		}
+		if (this.checksumFailures.remove(checksumFailure)) {
+			countChecksumResult(target, "fallback");
+		}
+		if (attempt.isSuccessful()) {
+			DistributionSummary.builder("artifactory.deploy.uploaded")
+				.description("Size of the artifacts that were uploaded")
+				.baseUnit("bytes")
+				.tag("target", target)
+				.register(this.registry)
+				.record(attempt.artifact().getSize());
+		}
+	}
+
+	/**
+	 * Write the metrics to the given file in the Prometheus text format.
+	 * @param file the file to which the metrics are written
+	 * @throws IOException if the metrics cannot be written
+	 */
+	void write(Path file) throws IOException {
+		Files.writeString(file, this.registry.scrape(), StandardCharsets.UTF_8);
+	}
+
+	private void countChecksumResult(String target, String result) {
+		Counter.builder("artifactory.deploy.checksum")
+			.description("Number of artifacts deployed by checksum or that fell back to uploading their content")
+			.tag("target", target)
+			.tag("result", result)
+			.register(this.registry)
+			.increment();
+	}
+
+	private record ChecksumFailure(URI target, String path) {
+
+	}
+
+}
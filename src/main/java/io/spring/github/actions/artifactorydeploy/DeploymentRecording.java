@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * JDK Flight Recorder recording of a deployment. When a recording file is configured, a
+ * recording using the {@code profile} settings is started and is dumped to the file when
+ * the application exits, whether or not the deployment succeeded. Alongside the JDK's own
+ * events, the recording includes a {@link PhaseEvent} for each phase of the deployment,
+ * an {@link ArtifactEvent} for the hashing or signing of each artifact, and an event for
+ * each attempt to deploy an artifact.
+ *
+ * @author Andy Wilkinson
+ */
+@Component
+class DeploymentRecording implements AutoCloseable {
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private final Recording recording;
+
+	DeploymentRecording(ArtifactoryDeployProperties properties) {
+		String file = properties.deploy().recording();
+		this.recording = StringUtils.hasText(file) ? start(Path.of(file)) : null;
+	}
+
+	private Recording start(Path file) {
+		try {
+			Recording recording = new Recording(Configuration.getConfiguration("profile"));
+			recording.setName("artifactory-deploy");
+			recording.setToDisk(true);
+			recording.setDestination(file);
+			recording.setDumpOnExit(true);
+			recording.start();
+			console.log("Recording deployment to {}", file);
+			return recording;
+		}
+		catch (IOException | ParseException ex) {
+			throw new IllegalStateException("Unable to start recording to '%s'".formatted(file), ex);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (this.recording != null && this.recording.getState() == RecordingState.RUNNING) {
+			this.recording.stop();
+		}
+	}
+
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployListener;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.io.FileSet.Category;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * Report of the performance of a deployment. The time spent in each {@link Phase} is
+ * recorded along with the number of artifacts in each {@link Category}, the size of the
+ * artifacts that were deployed, and the duration of each request that was made to deploy
+ * them. Throughput is calculated from the bytes that were uploaded by successful requests
+ * that sent an artifact's content, so artifacts deployed by checksum do not inflate it. When deploying to additional targets, an artifact is deployed to each target
+ * concurrently so the time taken to deploy it is that of its slowest target. The report
+ * is written as Markdown to the GitHub Actions step summary and, optionally, as JSON.
+ *
+ * @author Andy Wilkinson
+ */
+@Component
+class DeploymentReport implements DeployListener {
+
+	private static final int SLOWEST_ARTIFACTS = 10;
+
+	private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+	private final LongSupplier nanoTime;
+
+	private final Path stepSummary;
+
+	private final Map<Phase, LongAdder> phases = new EnumMap<>(Phase.class);
+
+	private final Map<Category, Integer> categories = new LinkedHashMap<>();
+
+	private final AtomicInteger deployedArtifacts = new AtomicInteger();
+
+	private final AtomicLong deployedBytes = new AtomicLong();
+
+	private long uploadedBytes;
+
+	private final List<Long> latencies = new ArrayList<>();
+
+	private final Map<String, Map<URI, Long>> artifactDurations = new HashMap<>();
+
+	DeploymentReport() {
+		this(System::nanoTime, getStepSummary());
+	}
+
+	DeploymentReport(LongSupplier nanoTime, Path stepSummary) {
+		this.nanoTime = nanoTime;
+		this.stepSummary = stepSummary;
+		for (Phase phase : Phase.values()) {
+			this.phases.put(phase, new LongAdder());
+		}
+	}
+
+	/**
+	 * Run the given action, recording the time that it takes against the given phase.
+	 * @param phase the phase
+	 * @param action the action to run
+	 */
+	void time(Phase phase, Runnable action) {
+		time(phase, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Call the given action, recording the time that it takes against the given phase.
+	 * @param <T> the type of the action's result
+	 * @param phase the phase
+	 * @param action the action to call
+	 * @return the result of the action
+	 */
+	<T> T time(Phase phase, Supplier<T> action) {
+		long start = this.nanoTime.getAsLong();
+		try {
+			return action.get();
+		}
+		finally {
+			this.phases.get(phase).add(this.nanoTime.getAsLong() - start);
+		}
+	}
+
+	/**
+	 * Record the batched artifacts that are to be deployed.
+	 * @param batchedArtifacts the batched artifacts
+	 */
+	synchronized void artifacts(MultiValueMap<Category, DeployableArtifact> batchedArtifacts) {
+		batchedArtifacts.forEach((category, artifacts) -> this.categories.merge(category, artifacts.size(),
+				Integer::sum));
+	}
+
+	/**
+	 * Record that the given artifact has been deployed.
+	 * @param artifact the artifact
+	 */
+	void deployed(DeployableArtifact artifact) {
+		this.deployedArtifacts.incrementAndGet();
+		this.deployedBytes.addAndGet(artifact.getSize());
+	}
+
+	@Override
+	public synchronized void attemptCompleted(DeployAttempt attempt) {
+		long duration = attempt.duration().toNanos();
+		this.latencies.add(duration);
+		if (attempt.mode() == Mode.CONTENT && attempt.isSuccessful()) {
+			this.uploadedBytes += attempt.artifact().getSize();
+		}
+		this.artifactDurations.computeIfAbsent(attempt.artifact().getPath(), (path) -> new HashMap<>())
+			.merge(attempt.target(), duration, Long::sum);
+	}
+
+	/**
+	 * Return a summary of the report.
+	 * @return the summary
+	 */
+	synchronized Summary summarize() {
+		Map<String, Integer> categories = new LinkedHashMap<>();
+		this.categories.forEach((category, count) -> categories.put(category.name().toLowerCase(), count));
+		Map<String, Long> phases = new LinkedHashMap<>();
+		this.phases.forEach((phase, time) -> phases.put(phase.name().toLowerCase(), toMillis(time.sum())));
+		long upload = this.phases.get(Phase.UPLOAD).sum();
+		double megabytesPerSecond = (upload > 0)
+				? (this.uploadedBytes / BYTES_PER_MEGABYTE) / (upload / (double) Duration.ofSeconds(1).toNanos())
+				: 0;
+		List<Long> latencies = this.latencies.stream().sorted().toList();
+		Map<String, Long> percentiles = new LinkedHashMap<>();
+		percentiles.put("p50", toMillis(percentile(latencies, 50)));
+		percentiles.put("p95", toMillis(percentile(latencies, 95)));
+		percentiles.put("p99", toMillis(percentile(latencies, 99)));
+		Map<String, Long> artifactDurations = new HashMap<>();
+		this.artifactDurations.forEach((path, targetDurations) -> artifactDurations.put(path,
+				Collections.max(targetDurations.values())));
+		List<SlowArtifact> slowest = artifactDurations.entrySet()
+			.stream()
+			.sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+				.thenComparing(Map.Entry.comparingByKey()))
+			.limit(SLOWEST_ARTIFACTS)
+			.map((entry) -> new SlowArtifact(entry.getKey(), toMillis(entry.getValue())))
+			.toList();
+		return new Summary(this.deployedArtifacts.get(), this.deployedBytes.get(), this.uploadedBytes, categories,
+				phases, Math.round(megabytesPerSecond * 100) / 100.0, percentiles, slowest);
+	}
+
+	private long percentile(List<Long> sorted, int percentile) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+		return sorted.get(Math.max(rank, 1) - 1);
+	}
+
+	private long toMillis(long nanos) {
+		return Duration.ofNanos(nanos).toMillis();
+	}
+
+	/**
+	 * Write the report. It is appended to the step summary as Markdown and, when a file is
+	 * given, written to it as JSON.
+	 * @param jsonFile the file to which the JSON is written or {@code null}
+	 * @throws IOException if the report cannot be written
+	 */
+	void write(Path jsonFile) throws IOException {
+		Summary summary = summarize();
+		if (this.stepSummary != null) {
+			Files.writeString(this.stepSummary, toMarkdown(summary), StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+		if (jsonFile != null) {
+			new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(jsonFile.toFile(), summary);
+		}
+	}
+
+	private String toMarkdown(Summary summary) {
+		StringWriter markdown = new StringWriter();
+		PrintWriter writer = new PrintWriter(markdown);
+		writer.println("## Artifactory Deployment");
+		writer.println();
+		writer.println("| Artifacts deployed | Size of artifacts (bytes) | Bytes uploaded | Upload throughput |");
+		writer.println("| --- | --- | --- | --- |");
+		writer.printf(Locale.ROOT, "| %d | %d | %d | %.2f MB/s |%n", summary.artifacts(), summary.bytes(),
+				summary.uploadedBytes(), summary.megabytesPerSecond());
+		writer.println();
+		writer.println("| Category | Artifacts |");
+		writer.println("| --- | --- |");
+		summary.categories().forEach((category, count) -> writer.printf("| %s | %d |%n", category, count));
+		writer.println();
+		writer.println("| Phase | Time (ms) |");
+		writer.println("| --- | --- |");
+		summary.phases().forEach((phase, millis) -> writer.printf("| %s | %d |%n", phase, millis));
+		writer.println();
+		writer.println("Checksum and sign times are the total across all threads.");
+		writer.println();
+		writer.println("| Upload latency | Time (ms) |");
+		writer.println("| --- | --- |");
+		summary.latencies().forEach((percentile, millis) -> writer.printf("| %s | %d |%n", percentile, millis));
+		writer.println();
+		writer.println("| Slowest artifacts | Time (ms) |");
+		writer.println("| --- | --- |");
+		summary.slowest().forEach((artifact) -> writer.printf("| %s | %d |%n", artifact.path(), artifact.millis()));
+		writer.println();
+		writer.flush();
+		return markdown.toString();
+	}
+
+	private static Path getStepSummary() {
+		String stepSummary = System.getenv("GITHUB_STEP_SUMMARY");
+		return StringUtils.hasText(stepSummary) ? Path.of(stepSummary) : null;
+	}
+
+	/**
+	 * The phases of a deployment.
+	 */
+	enum Phase {
+
+		/**
+		 * Scanning for the artifacts to deploy.
+		 */
+		SCAN,
+
+		/**
+		 * Calculating the checksums of artifacts. Recorded across all threads.
+		 */
+		CHECKSUM,
+
+		/**
+		 * Signing artifacts. Recorded across all threads.
+		 */
+		SIGN,
+
+		/**
+		 * Uploading artifacts.
+		 */
+		UPLOAD,
+
+		/**
+		 * Publishing build info.
+		 */
+		BUILD_INFO
+
+	}
+
+	/**
+	 * A summary of a {@link DeploymentReport}.
+	 *
+	 * @param artifacts the number of artifacts that were deployed
+	 * @param bytes the total size, in bytes, of the artifacts that were deployed, whether
+	 * by checksum or by uploading their content
+	 * @param uploadedBytes the number of bytes that were uploaded by successful requests
+	 * that sent an artifact's content
+	 * @param categories the number of artifacts in each category
+	 * @param phases the time, in milliseconds, spent in each phase
+	 * @param megabytesPerSecond the rate at which bytes were uploaded during the upload
+	 * phase
+	 * @param latencies the 50th, 95th, and 99th percentile latencies, in milliseconds, of
+	 * the deployment requests
+	 * @param slowest the artifacts that took the longest to deploy
+	 */
+	record Summary(int artifacts, long bytes, long uploadedBytes, Map<String, Integer> categories,
+			Map<String, Long> phases, double megabytesPerSecond, Map<String, Long> latencies,
+			List<SlowArtifact> slowest) {
+
+	}
+
+	/**
+	 * An artifact that was slow to deploy.
+	 *
+	 * @param path the path of the artifact
+	 * @param millis the time, in milliseconds, that was spent deploying it
+	 */
+	record SlowArtifact(String path, long millis) {
+
+	}
+
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Order;
+import io.spring.github.actions.artifactorydeploy.io.FileSet.Category;
+import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
+
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Schedules the deployment of batched {@link Deployable Deployables}, only ordering
+ * deployments where it matters. Within a single directory, deployables are deployed one
+ * {@link Category} at a time (for example, primary artifacts before the POM and the POM
+ * before signatures). Deployables in different directories are deployed independently of
+ * each other. Deployables that are ready to be deployed are deployed in the configured
+ * {@link Order}. The first failure stops the deployment, cancelling any deployments that
+ * are in-flight. When deploying the largest deployables first, each deployable's size is
+ * determined once, up front. Signatures are generated when their size is first needed so
+ * they are not sized and are deployed in batch order.
+ * <p>
+ * When a {@link Preparer} is used, a deployable is only deployed once it has been
+ * prepared (for example, hashed or signed). Deployables are prepared one batch at a time,
+ * in the iteration order of the batches, and in the configured {@link Order} within each
+ * batch. Preparation stays no more than a limited number of deployables ahead of the
+ * deployments so that it is held back when deployment cannot keep up.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentScheduler {
+
+	private static final ConsoleLogger console = new ConsoleLogger();
+
+	private final BoundedExecutor executor;
+
+	private final Consumer<Deployable> deployer;
+
+	private final Comparator<Task> order;
+
+	private final boolean sized;
+
+	private final Preparer preparer;
+
+	private final int prepareAhead;
+
+	DeploymentScheduler(BoundedExecutor executor, Consumer<Deployable> deployer) {
+		this(executor, deployer, Order.PATH);
+	}
+
+	DeploymentScheduler(BoundedExecutor executor, Consumer<Deployable> deployer, Order order) {
+		this(executor, deployer, order, null, Integer.MAX_VALUE);
+	}
+
+	DeploymentScheduler(BoundedExecutor executor, Consumer<Deployable> deployer, Order order,
+			Preparer preparer, int prepareAhead) {
+		Assert.isTrue(prepareAhead > 0, "Prepare ahead must be greater than 0");
+		this.executor = executor;
+		this.deployer = deployer;
+		this.order = getComparator(order);
+		this.sized = order == Order.LARGEST_FIRST;
+		this.preparer = preparer;
+		this.prepareAhead = prepareAhead;
+	}
+
+	private static Comparator<Task> getComparator(Order order) {
+		Comparator<Task> sequence = Comparator.comparingLong(Task::sequence);
+		return switch (order) {
+			case PATH -> sequence;
+			case LARGEST_FIRST -> Comparator.comparingLong(Task::size).reversed().thenComparing(sequence);
+		};
+	}
+
+	/**
+	 * Deploy the given batched deployables, blocking until they have all been deployed
+	 * or a deployment has failed. Deployables in each directory are deployed in the
+	 * iteration order of the batches.
+	 * @param batchedDeployables the deployables to deploy
+	 * @throws InterruptedException if interrupted while waiting for deployment to
+	 * complete
+	 */
+	void deploy(MultiValueMap<Category, Deployable> batchedDeployables) throws InterruptedException {
+		new Deployment(batchedDeployables).run();
+	}
+
+	private final class Deployment {
+
+		private final Task complete = new Task(null, null, 0, Long.MAX_VALUE);
+
+		private final BlockingQueue<Task> ready = new PriorityBlockingQueue<>(11, DeploymentScheduler.this.order);
+
+		private final AtomicLong sequence = new AtomicLong();
+
+		private final AtomicInteger remaining = new AtomicInteger();
+
+		private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+		private final Set<Deployable> prepared = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private final Set<Deployable> reached = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private final Map<Deployable, Long> sizes = new IdentityHashMap<>();
+
+		private final Iterator<Preparation> unprepared;
+
+		private int preparing;
+
+		Deployment(MultiValueMap<Category, Deployable> batchedDeployables) {
+			Map<String, Module> modules = new LinkedHashMap<>();
+			List<Preparation> preparations = new ArrayList<>();
+			batchedDeployables.forEach((category, deployables) -> {
+				List<Preparation> batch = new ArrayList<>();
+				deployables.forEach((deployable) -> {
+					Module module = modules.computeIfAbsent(deployable.directory(), (directory) -> new Module());
+					module.add(category, deployable);
+					batch.add(new Preparation(category, module, deployable, size(category, deployable)));
+				});
+				if (DeploymentScheduler.this.sized) {
+					batch.sort(Comparator.comparingLong(Preparation::size).reversed());
+				}
+				preparations.addAll(batch);
+			});
+			modules.values().forEach((module) -> this.remaining.addAndGet(module.size()));
+			for (Preparation preparation : preparations) {
+				if (preparation.module().isInitialStage(preparation.category())) {
+					reached(preparation.module(), preparation.deployable());
+				}
+			}
+			modules.values().forEach(Module::start);
+			this.unprepared = preparations.iterator();
+			prepare();
+		}
+
+		private long size(Category category, Deployable deployable) {
+			if (!DeploymentScheduler.this.sized || category == Category.SIGNATURE) {
+				return 0;
+			}
+			long size = deployable.size();
+			this.sizes.put(deployable, size);
+			return size;
+		}
+
+		private Task task(Module module, Deployable deployable) {
+			long size = this.sizes.getOrDefault(deployable, 0L);
+			return new Task(module, deployable, size, this.sequence.getAndIncrement());
+		}
+
+		private synchronized void prepare() {
+			if (DeploymentScheduler.this.preparer == null) {
+				return;
+			}
+			while (this.preparing < DeploymentScheduler.this.prepareAhead && this.unprepared.hasNext()
+					&& this.failure.get() == null) {
+				Preparation preparation = this.unprepared.next();
+				this.preparing++;
+				DeploymentScheduler.this.preparer.prepare(preparation.category(), preparation.deployable())
+					.whenComplete((result, ex) -> {
+						if (ex != null) {
+							failed(preparation.deployable(), unwrap(ex));
+						}
+						else {
+							prepared(preparation.module(), preparation.deployable());
+						}
+					});
+			}
+		}
+
+		private synchronized void prepared(Module module, Deployable deployable) {
+			if (this.reached.remove(deployable)) {
+				this.ready.add(task(module, deployable));
+			}
+			else {
+				this.prepared.add(deployable);
+			}
+		}
+
+		private synchronized void reached(Module module, Deployable deployable) {
+			if (DeploymentScheduler.this.preparer == null || this.prepared.remove(deployable)) {
+				this.ready.add(task(module, deployable));
+			}
+			else {
+				this.reached.add(deployable);
+			}
+		}
+
+		void run() throws InterruptedException {
+			if (this.remaining.get() > 0) {
+				Task task = this.ready.take();
+				while (task != this.complete && this.failure.get() == null) {
+					deploy(task);
+					task = this.ready.take();
+				}
+			}
+			RuntimeException failure = this.failure.get();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+
+		private void deploy(Task task) throws InterruptedException {
+			try {
+				DeploymentScheduler.this.executor
+					.submit(() -> DeploymentScheduler.this.deployer.accept(task.deployable()))
+					.whenComplete((result, ex) -> completed(task, ex));
+			}
+			catch (RejectedExecutionException ex) {
+				if (this.failure.get() == null) {
+					throw ex;
+				}
+			}
+		}
+
+		private void completed(Task task, Throwable ex) {
+			if (ex != null) {
+				failed(task.deployable(), unwrap(ex));
+			}
+			Module module = task.module();
+			Progress progress = module.completed(ex == null);
+			progress.next().forEach((deployable) -> reached(module, deployable));
+			if (this.remaining.addAndGet(-1 - progress.skipped()) == 0) {
+				this.ready.add(this.complete);
+			}
+			if (DeploymentScheduler.this.preparer != null) {
+				synchronized (this) {
+					this.preparing--;
+					prepare();
+				}
+			}
+		}
+
+		private Throwable unwrap(Throwable ex) {
+			return (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+		}
+
+		private void failed(Deployable deployable, Throwable ex) {
+			if (this.failure.compareAndSet(null, new RuntimeException(ex))) {
+				console.log("Deployment of {} failed. Cancelling remaining deployments.", deployable.description());
+				DeploymentScheduler.this.executor.cancel();
+				this.ready.add(this.complete);
+			}
+		}
+
+	}
+
+	/**
+	 * Prepares a deployable so that it is ready to be deployed.
+	 */
+	@FunctionalInterface
+	interface Preparer {
+
+		/**
+		 * Prepare the given deployable.
+		 * @param category the category of the deployable
+		 * @param deployable the deployable to prepare
+		 * @return a future that completes once the deployable has been prepared
+		 */
+		CompletableFuture<?> prepare(Category category, Deployable deployable);
+
+	}
+
+	private static final class Module {
+
+		private final Deque<Stage> stages = new ArrayDeque<>();
+
+		private int pending;
+
+		private boolean failed;
+
+		void add(Category category, Deployable deployable) {
+			if (this.stages.isEmpty() || this.stages.getLast().category() != category) {
+				this.stages.addLast(new Stage(category, new ArrayList<>()));
+			}
+			this.stages.getLast().deployables().add(deployable);
+		}
+
+		int size() {
+			return this.stages.stream().mapToInt((stage) -> stage.deployables().size()).sum();
+		}
+
+		boolean isInitialStage(Category category) {
+			return this.stages.getFirst().category() == category;
+		}
+
+		void start() {
+			this.pending = this.stages.removeFirst().deployables().size();
+		}
+
+		synchronized Progress completed(boolean success) {
+			this.failed |= !success;
+			this.pending--;
+			if (this.pending > 0 || this.stages.isEmpty()) {
+				return Progress.NONE;
+			}
+			if (this.failed) {
+				int skipped = size();
+				this.stages.clear();
+				return new Progress(List.of(), skipped);
+			}
+			Stage next = this.stages.removeFirst();
+			this.pending = next.deployables().size();
+			return new Progress(next.deployables(), 0);
+		}
+
+	}
+
+	private record Stage(Category category, List<Deployable> deployables) {
+
+	}
+
+	private record Preparation(Category category, Module module, Deployable deployable, long size) {
+
+	}
+
+	private record Task(Module module, Deployable deployable, long size, long sequence) {
+
+	}
+
+	private record Progress(List<Deployable> next, int skipped) {
+
+		static final Progress NONE = new Progress(List.of(), 0);
+
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR {@link Event} for a whole {@link Phase} of a deployment.
+ *
+ * @author Andy Wilkinson
+ */
+@Name("io.spring.github.actions.artifactorydeploy.Phase")
+@Label("Deployment Phase")
+@Category("Artifactory Deploy")
+@Description("A phase of a deployment to Artifactory")
+class PhaseEvent extends Event {
+
+	@Label("Phase")
+	String phase;
+
+	PhaseEvent(Phase phase) {
+		this.phase = phase.name().toLowerCase();
+	}
+
+}
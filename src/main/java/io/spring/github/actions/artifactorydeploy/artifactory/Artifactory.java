@@ -18,7 +18,9 @@ package io.spring.github.actions.artifactorydeploy.artifactory;
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildModule;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
@@ -41,6 +43,24 @@ public interface Artifactory {
 	 */
 	void deploy(String repository, DeployableArtifact artifact);
 
+	/**
+	 * Deploy the specified artifacts to the repository in a single archive that is
+	 * exploded by Artifactory. All of the artifacts must have the same properties.
+	 * @param repository the name of the repository
+	 * @param artifacts the artifacts to deploy
+	 */
+	void deployArchive(String repository, List<DeployableArtifact> artifacts);
+
+	/**
+	 * Returns the SHA-1 checksums of the artifacts that already exist in the repository
+	 * at any of the specified paths.
+	 * @param repository the name of the repository
+	 * @param paths the paths of the artifacts
+	 * @return a map of path to SHA-1 checksum for each of the paths at which an artifact
+	 * exists
+	 */
+	Map<String, String> getSha1Checksums(String repository, Collection<String> paths);
+
 	/**
 	 * Adds a build run.
 	 * @param project the name of the project, if any, that should store the build run's
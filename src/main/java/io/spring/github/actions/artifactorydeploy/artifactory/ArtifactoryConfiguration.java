@@ -16,12 +16,18 @@
 
 package io.spring.github.actions.artifactorydeploy.artifactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Target;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 /**
  * {@link Configuration} for Artifactory-related classes.
@@ -32,9 +38,28 @@ import org.springframework.context.annotation.Configuration;
 class ArtifactoryConfiguration {
 
 	@Bean
-	Artifactory artifactory(ArtifactoryDeployProperties properties, RestTemplateBuilder restTemplateBuilder) {
-		return new HttpArtifactory(restTemplateBuilder, properties.server().uri(), properties.server().username(),
-				properties.server().password());
+	Artifactory artifactory(ArtifactoryDeployProperties properties, RestTemplateBuilder restTemplateBuilder,
+			ObjectProvider<DeployListener> deployListeners) {
+		DeployListener listener = DeployListener.of(deployListeners.orderedStream().toList());
+		BandwidthLimiter bandwidthLimiter = getBandwidthLimiter(properties);
+		Artifactory artifactory = new HttpArtifactory(restTemplateBuilder, properties.server().uri(),
+				properties.server().username(), properties.server().password(), HttpArtifactory.DEFAULT_RETRY_DELAY,
+				listener, bandwidthLimiter);
+		if (properties.targets().isEmpty()) {
+			return artifactory;
+		}
+		Map<Target, Artifactory> targets = new LinkedHashMap<>();
+		for (Target target : properties.targets()) {
+			Target authenticated = target.withDefaultCredentials(properties.targetCredentials());
+			targets.put(target, new HttpArtifactory(restTemplateBuilder, authenticated.uri(), authenticated.username(),
+					authenticated.password(), HttpArtifactory.DEFAULT_RETRY_DELAY, listener, bandwidthLimiter));
+		}
+		return new CompositeArtifactory(artifactory, targets, properties.deploy().threads());
+	}
+
+	private BandwidthLimiter getBandwidthLimiter(ArtifactoryDeployProperties properties) {
+		DataSize bandwidthLimit = properties.deploy().bandwidthLimit();
+		return (bandwidthLimit != null) ? new BandwidthLimiter(bandwidthLimit) : null;
 	}
 
 	@Bean
@@ -43,4 +68,10 @@ class ArtifactoryConfiguration {
 		return new StringToArtifactPropertiesConverter();
 	}
 
+	@Bean
+	@ConfigurationPropertiesBinding
+	StringToTargetsConverter targetsConverter() {
+		return new StringToTargetsConverter();
+	}
+
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Token bucket that limits the combined rate at which bytes are read from all of the
+ * {@link #limit(Resource) resources} that it is limiting. Readers that have exceeded the
+ * rate are paused until enough tokens have accumulated to pay for what they have read.
+ *
+ * @author Andy Wilkinson
+ */
+class BandwidthLimiter {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private static final int CHUNK_SIZE = 8 * 1024;
+
+	private final long bytesPerSecond;
+
+	private final long capacity;
+
+	private double tokens;
+
+	private long lastRefill;
+
+	BandwidthLimiter(DataSize bytesPerSecond) {
+		Assert.isTrue(bytesPerSecond.toBytes() > 0, "Bandwidth limit must be greater than 0");
+		this.bytesPerSecond = bytesPerSecond.toBytes();
+		this.capacity = Math.max(this.bytesPerSecond / 10, CHUNK_SIZE);
+		this.tokens = this.capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Return a {@link Resource} that provides the content of the given resource at a rate
+	 * that is limited by this limiter.
+	 * @param resource the resource to limit
+	 * @return the limited resource
+	 */
+	Resource limit(Resource resource) {
+		return new LimitedResource(resource);
+	}
+
+	/**
+	 * Acquire tokens for the given number of bytes, blocking until they have been paid
+	 * for.
+	 * @param bytes the number of bytes
+	 * @throws InterruptedException if interrupted while blocked
+	 */
+	void acquire(int bytes) throws InterruptedException {
+		long wait;
+		synchronized (this) {
+			long now = System.nanoTime();
+			this.tokens = Math.min(this.capacity,
+					this.tokens + (double) (now - this.lastRefill) * this.bytesPerSecond / NANOS_PER_SECOND);
+			this.lastRefill = now;
+			this.tokens -= bytes;
+			wait = (this.tokens < 0) ? (long) (-this.tokens * NANOS_PER_SECOND / this.bytesPerSecond) : 0;
+		}
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	private final class LimitedResource extends AbstractResource {
+
+		private final Resource delegate;
+
+		private LimitedResource(Resource delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return new LimitedInputStream(this.delegate.getInputStream());
+		}
+
+		@Override
+		public long contentLength() throws IOException {
+			return this.delegate.contentLength();
+		}
+
+		@Override
+		public String getFilename() {
+			return this.delegate.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "Bandwidth limited " + this.delegate.getDescription();
+		}
+
+	}
+
+	private final class LimitedInputStream extends FilterInputStream {
+
+		private LimitedInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				acquire(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, Math.min(len, CHUNK_SIZE));
+			if (read > 0) {
+				acquire(read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, CHUNK_SIZE));
+			if (skipped > 0) {
+				acquire((int) skipped);
+			}
+			return skipped;
+		}
+
+		private void acquire(int bytes) throws InterruptedIOException {
+			try {
+				BandwidthLimiter.this.acquire(bytes);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while limiting bandwidth");
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Target;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * {@link Artifactory} that deploys to a primary {@link Artifactory} and to any number of
+ * additional targets. The artifact that is being deployed is shared by every target so
+ * that it is only hashed and signed once. Each deployment to the additional targets runs
+ * concurrently with the deployment to the primary and the first failure cancels the
+ * others. Each additional target has its own pool of threads, bounded by the number of
+ * deploy threads, so that no target receives more concurrent requests than the primary
+ * is allowed to. As each deploy thread waits for its additional targets, requests to them
+ * are also bounded by any adaptive limit on the deploy threads. Searches for existing artifacts are performed against every target and an
+ * artifact is only found when every target has it with the same checksum.
+ *
+ * @author Andy Wilkinson
+ */
+class CompositeArtifactory implements Artifactory, AutoCloseable {
+
+	private final Artifactory primary;
+
+	private final List<AdditionalTarget> targets;
+
+	CompositeArtifactory(Artifactory primary, Map<Target, Artifactory> targets, int threads) {
+		this.primary = primary;
+		this.targets = new ArrayList<>();
+		targets.forEach((target, artifactory) -> this.targets
+			.add(new AdditionalTarget(target, artifactory, createExecutor(this.targets.size() + 1, threads))));
+	}
+
+	private static ExecutorService createExecutor(int index, int threads) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"artifactory-target-" + index + "-");
+		threadFactory.setDaemon(true);
+		return Executors.newFixedThreadPool(threads, threadFactory);
+	}
+
+	@Override
+	public void deploy(String repository, DeployableArtifact artifact) {
+		invoke(repository, (artifactory, targetRepository) -> artifactory.deploy(targetRepository, artifact));
+	}
+
+	@Override
+	public void deployArchive(String repository, List<DeployableArtifact> artifacts) {
+		invoke(repository, (artifactory, targetRepository) -> artifactory.deployArchive(targetRepository, artifacts));
+	}
+
+	@Override
+	public Map<String, String> getSha1Checksums(String repository, Collection<String> paths) {
+		List<Map<String, String>> results = new CopyOnWriteArrayList<>();
+		invoke(repository, (artifactory, targetRepository) -> results
+			.add(artifactory.getSha1Checksums(targetRepository, paths)));
+		Map<String, String> checksums = new HashMap<>(results.get(0));
+		for (Map<String, String> result : results) {
+			checksums.entrySet().removeIf((entry) -> !entry.getValue().equalsIgnoreCase(result.get(entry.getKey())));
+		}
+		return checksums;
+	}
+
+	@Override
+	public void addBuildRun(String project, String buildName, BuildRun buildRun) {
+		invoke(null, (artifactory, targetRepository) -> artifactory.addBuildRun(project, buildName, buildRun));
+	}
+
+	private void invoke(String repository, BiConsumer<Artifactory, String> action) {
+		List<Future<?>> futures = this.targets.stream()
+			.<Future<?>>map((target) -> target.executor().submit(() -> target.invoke(repository, action)))
+			.toList();
+		try {
+			action.accept(this.primary, repository);
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for additional targets", ex);
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+		finally {
+			futures.forEach((future) -> future.cancel(true));
+		}
+	}
+
+	@Override
+	public void close() {
+		this.targets.forEach((target) -> target.executor().shutdownNow());
+	}
+
+	private record AdditionalTarget(Target target, Artifactory artifactory, ExecutorService executor) {
+
+		void invoke(String repository, BiConsumer<Artifactory, String> action) {
+			try {
+				String targetRepository = this.target.repository();
+				action.accept(this.artifactory, (targetRepository != null) ? targetRepository : repository);
+			}
+			catch (RuntimeException ex) {
+				throw new RuntimeException("Request to additional target " + this.target.uri() + " failed", ex);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.net.URI;
+import java.time.Duration;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * A single attempt to deploy an artifact to Artifactory.
+ *
+ * @param target the URI of the Artifactory instance to which the artifact was being
+ * deployed
+ * @param artifact the artifact that was being deployed
+ * @param mode how the artifact was being deployed
+ * @param number the number of the attempt, starting at 1
+ * @param duration how long the attempt took
+ * @param status the status of the response or {@code null} if no response was received
+ * @param failure the failure or {@code null} if the attempt succeeded
+ * @author Andy Wilkinson
+ * @see DeployListener
+ */
+public record DeployAttempt(URI target, DeployableArtifact artifact, Mode mode, int number, Duration duration,
+		HttpStatusCode status, Throwable failure) {
+
+	/**
+	 * Return whether the attempt succeeded.
+	 * @return {@code true} if the attempt succeeded, otherwise {@code false}
+	 */
+	public boolean isSuccessful() {
+		return this.failure == null;
+	}
+
+	/**
+	 * Return whether Artifactory throttled the attempt by responding with a 429 (Too Many
+	 * Requests) or 503 (Service Unavailable) status. An attempt that failed without a
+	 * response was not throttled.
+	 * @return {@code true} if the attempt was throttled, otherwise {@code false}
+	 */
+	public boolean isThrottled() {
+		return this.status != null && (HttpStatus.TOO_MANY_REQUESTS.isSameCodeAs(this.status)
+				|| HttpStatus.SERVICE_UNAVAILABLE.isSameCodeAs(this.status));
+	}
+
+	/**
+	 * Return whether the attempt failed due to a {@link java.net.SocketException}, such
+	 * as a connection reset.
+	 * @return {@code true} if the attempt failed due to a socket exception, otherwise
+	 * {@code false}
+	 */
+	public boolean isCausedBySocketException() {
+		return HttpArtifactory.isCausedBySocketException(this.failure);
+	}
+
+	/**
+	 * The ways in which an artifact can be deployed.
+	 */
+	public enum Mode {
+
+		/**
+		 * Deployed by checksum, without uploading the artifact's content.
+		 */
+		CHECKSUM,
+
+		/**
+		 * Deployed by uploading the artifact's content.
+		 */
+		CONTENT
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.net.URI;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * JFR {@link Event} for a single {@link DeployAttempt attempt} to deploy an artifact.
+ *
+ * @author Andy Wilkinson
+ */
+@Name("io.spring.github.actions.artifactorydeploy.Deploy")
+@Label("Artifact Deploy")
+@Category("Artifactory Deploy")
+@Description("An attempt to deploy an artifact to Artifactory")
+class DeployEvent extends Event {
+
+	@Label("Target")
+	String target;
+
+	@Label("Path")
+	String path;
+
+	@Label("Size")
+	@DataAmount
+	long size;
+
+	@Label("Mode")
+	String mode;
+
+	@Label("Attempt")
+	int attempt;
+
+	@Label("Status")
+	int status;
+
+	@Label("Successful")
+	boolean successful;
+
+	DeployEvent(URI target, DeployableArtifact artifact, Mode mode, int attempt) {
+		this.target = target.toString();
+		this.path = artifact.getPath();
+		this.size = artifact.getSize();
+		this.mode = mode.name().toLowerCase();
+		this.attempt = attempt;
+	}
+
+	/**
+	 * Complete and commit the event.
+	 * @param status the status of the response or {@code null} if no response was
+	 * received
+	 * @param successful whether the attempt succeeded
+	 */
+	void completed(HttpStatusCode status, boolean successful) {
+		this.status = (status != null) ? status.value() : 0;
+		this.successful = successful;
+		commit();
+	}
+
+}
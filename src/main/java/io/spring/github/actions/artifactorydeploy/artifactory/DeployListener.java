@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.util.List;
+
+/**
+ * Listener that is notified of each {@link DeployAttempt attempt} to deploy an artifact
+ * to Artifactory. Listeners are called on the thread that made the attempt so they
+ * should be thread-safe and return quickly.
+ *
+ * @author Andy Wilkinson
+ */
+@FunctionalInterface
+public interface DeployListener {
+
+	/**
+	 * Called when an attempt to deploy an artifact has completed, successfully or
+	 * otherwise.
+	 * @param attempt the attempt
+	 */
+	void attemptCompleted(DeployAttempt attempt);
+
+	/**
+	 * Return a listener that notifies each of the given listeners in turn.
+	 * @param listeners the listeners
+	 * @return the composite listener
+	 */
+	static DeployListener of(List<? extends DeployListener> listeners) {
+		List<DeployListener> copy = List.copyOf(listeners);
+		return (attempt) -> copy.forEach((listener) -> listener.attemptCompleted(attempt));
+	}
+
+}
@@ -16,24 +16,46 @@
 
 package io.spring.github.actions.artifactorydeploy.artifactory;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketException;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Version;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import io.spring.github.actions.artifactorydeploy.artifactory.UploadClientHttpRequestFactory.UploadBody;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildInfo;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.Checksums;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableFileArtifact;
 import io.spring.github.actions.artifactorydeploy.system.ConsoleLogger;
 
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.RequestEntity.BodyBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.HttpClientErrorException;
@@ -52,31 +74,65 @@ import org.springframework.web.util.UriComponentsBuilder;
  */
 class HttpArtifactory implements Artifactory {
 
+	static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(5);
+
 	private static final long CHECKSUM_THRESHOLD = 10 * 1024;
 
+	private static final int DIRECTORIES_PER_QUERY = 100;
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
 	private static final ConsoleLogger console = new ConsoleLogger();
 
 	private final RestTemplate restTemplate;
 
+	private final URI target;
+
 	private final String uri;
 
 	private final Duration retryDelay;
 
+	private final DeployListener listener;
+
+	private final BandwidthLimiter bandwidthLimiter;
+
 	HttpArtifactory(RestTemplateBuilder restTemplateBuilder, URI uri, String username, String password) {
-		this(restTemplateBuilder, uri, username, password, Duration.ofSeconds(5));
+		this(restTemplateBuilder, uri, username, password, DEFAULT_RETRY_DELAY);
 	}
 
 	HttpArtifactory(RestTemplateBuilder restTemplateBuilder, URI uri, String username, String password,
 			Duration retryDelay) {
-		RestTemplateBuilder builder = restTemplateBuilder.setConnectTimeout(Duration.ofMinutes(1))
-			.setReadTimeout(Duration.ofMinutes(5));
+		this(restTemplateBuilder, uri, username, password, retryDelay, (attempt) -> {
+		});
+	}
+
+	HttpArtifactory(RestTemplateBuilder restTemplateBuilder, URI uri, String username, String password,
+			Duration retryDelay, DeployListener listener) {
+		this(restTemplateBuilder, uri, username, password, retryDelay, listener, null);
+	}
+
+	HttpArtifactory(RestTemplateBuilder restTemplateBuilder, URI uri, String username, String password,
+			Duration retryDelay, DeployListener listener, BandwidthLimiter bandwidthLimiter) {
+		RestTemplateBuilder builder = restTemplateBuilder.requestFactory(HttpArtifactory::createRequestFactory);
 		if (StringUtils.hasText(username)) {
 			builder = builder.basicAuthentication(username, password);
 		}
 		this.restTemplate = builder.build();
+		this.restTemplate.getMessageConverters().add(new UploadClientHttpRequestFactory.UploadBodyConverter());
+		this.target = uri;
 		String uriString = uri.toString();
 		this.uri = uriString.endsWith("/") ? uriString : uriString + "/";
 		this.retryDelay = retryDelay;
+		this.listener = listener;
+		this.bandwidthLimiter = bandwidthLimiter;
+	}
+
+	private static ClientHttpRequestFactory createRequestFactory() {
+		HttpClient httpClient = HttpClient.newBuilder()
+			.version(Version.HTTP_1_1)
+			.connectTimeout(Duration.ofMinutes(1))
+			.build();
+		return new UploadClientHttpRequestFactory(httpClient, Duration.ofMinutes(5));
 	}
 
 	@Override
@@ -91,7 +147,7 @@ class HttpArtifactory implements Artifactory {
 				deployUsingChecksum(repository, artifact);
 			}
 			catch (Exception ex) {
-				if (!(ex instanceof HttpClientErrorException || isCausedBySocketException(ex))) {
+				if (!(ex instanceof HttpClientErrorException || isCausedBySocketException(ex)) || isThrottled(ex)) {
 					throw ex;
 				}
 				deployUsingContent(repository, artifact);
@@ -104,37 +160,158 @@ class HttpArtifactory implements Artifactory {
 		}
 	}
 
+	@Override
+	public void deployArchive(String repository, List<DeployableArtifact> artifacts) {
+		Assert.notEmpty(artifacts, "Artifacts must not be empty");
+		Map<String, String> properties = artifacts.get(0).getProperties();
+		Assert.isTrue(artifacts.stream().allMatch((artifact) -> artifact.getProperties().equals(properties)),
+				"Artifacts must all have the same properties");
+		String directory = getCommonDirectory(artifacts);
+		File archive = null;
+		try {
+			archive = File.createTempFile("artifacts-", ".zip");
+			writeArchive(archive, directory, artifacts);
+			DeployableArtifact archiveArtifact = new DeployableFileArtifact(directory + archive.getName(), archive,
+					properties, null);
+			console.debug("Deploying archive {} containing {} artifacts", archiveArtifact.getPath(),
+					artifacts.size());
+			deployUsingContent(repository, archiveArtifact, true);
+		}
+		catch (Exception ex) {
+			throw new RuntimeException("Error deploying archive of " + artifacts.size() + " artifacts in " + directory,
+					ex);
+		}
+		finally {
+			if (archive != null) {
+				archive.delete();
+			}
+		}
+	}
+
+	private String getCommonDirectory(List<DeployableArtifact> artifacts) {
+		String common = null;
+		for (DeployableArtifact artifact : artifacts) {
+			String path = artifact.getPath();
+			String directory = path.substring(0, path.lastIndexOf('/') + 1);
+			while (common != null && !directory.startsWith(common)) {
+				common = common.substring(0, common.lastIndexOf('/', common.length() - 2) + 1);
+			}
+			common = (common != null) ? common : directory;
+		}
+		return common;
+	}
+
+	private void writeArchive(File archive, String directory, List<DeployableArtifact> artifacts)
+			throws IOException {
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+			for (DeployableArtifact artifact : artifacts) {
+				zip.putNextEntry(new ZipEntry(artifact.getPath().substring(directory.length())));
+				try (InputStream content = artifact.getContent().getInputStream()) {
+					content.transferTo(zip);
+				}
+				zip.closeEntry();
+			}
+		}
+	}
+
 	private void deployUsingChecksum(String repository, DeployableArtifact artifact) {
-		RequestEntity<Void> request = deployRequest(repository, artifact).header("X-Checksum-Deploy", "true").build();
-		this.restTemplate.exchange(request, Void.class);
+		int attempt = 0;
+		while (true) {
+			try {
+				attempt++;
+				RequestEntity<Void> request = deployRequest(repository, artifact).header("X-Checksum-Deploy", "true")
+					.build();
+				exchange(request, artifact, Mode.CHECKSUM, attempt);
+				return;
+			}
+			catch (RestClientResponseException ex) {
+				// Uploading the content of a throttled checksum deploy would add to the load
+				if (!isThrottled(ex) || attempt >= 3) {
+					throw ex;
+				}
+				console.log("Deploy by checksum throttled with {} response. Retrying in {}ms.", ex.getStatusCode(),
+						this.retryDelay.toMillis());
+				sleep(this.retryDelay);
+			}
+		}
 	}
 
 	private void deployUsingContent(String repository, DeployableArtifact artifact) {
+		deployUsingContent(repository, artifact, false);
+	}
+
+	private void deployUsingContent(String repository, DeployableArtifact artifact, boolean explodeArchive) {
 		int attempt = 0;
 		while (true) {
 			try {
 				attempt++;
-				RequestEntity<Resource> request = deployRequest(repository, artifact).contentLength(artifact.getSize())
-					.body(artifact.getContent());
-				this.restTemplate.exchange(request, Void.class);
+				BodyBuilder builder = deployRequest(repository, artifact);
+				if (explodeArchive) {
+					builder.header("X-Explode-Archive", "true");
+				}
+				RequestEntity<UploadBody> request = builder.contentLength(artifact.getSize()).body(getBody(artifact));
+				exchange(request, artifact, Mode.CONTENT, attempt);
 				return;
 			}
 			catch (RestClientResponseException | ResourceAccessException ex) {
 				HttpStatusCode statusCode = (ex instanceof RestClientResponseException restClientException)
 						? restClientException.getStatusCode() : null;
 				boolean flaky = (statusCode == HttpStatus.BAD_REQUEST || statusCode == HttpStatus.NOT_FOUND)
-						|| isCausedBySocketException(ex);
+						|| isThrottled(ex) || isCausedBySocketException(ex);
 				if (!flaky || attempt >= 3) {
 					throw ex;
 				}
 				console.log("Deploy failed with {} response. Retrying in {}ms.", statusCode,
 						this.retryDelay.toMillis());
-				trySleep(this.retryDelay);
+				sleep(this.retryDelay);
 			}
 		}
 	}
 
-	private boolean isCausedBySocketException(Throwable ex) {
+	private UploadBody getBody(DeployableArtifact artifact) {
+		return new UploadBody(artifact.getContent(), artifact.getSize(), this.bandwidthLimiter);
+	}
+
+	private void exchange(RequestEntity<?> request, DeployableArtifact artifact, Mode mode, int attempt) {
+		DeployEvent event = new DeployEvent(this.target, artifact, mode, attempt);
+		event.begin();
+		long start = System.nanoTime();
+		try {
+			ResponseEntity<Void> response = this.restTemplate.exchange(request, Void.class);
+			event.completed(response.getStatusCode(), true);
+			notifyListener(new DeployAttempt(this.target, artifact, mode, attempt,
+					Duration.ofNanos(System.nanoTime() - start), response.getStatusCode(), null));
+		}
+		catch (RuntimeException ex) {
+			HttpStatusCode statusCode = (ex instanceof RestClientResponseException restClientException)
+					? restClientException.getStatusCode() : null;
+			event.completed(statusCode, false);
+			notifyListener(new DeployAttempt(this.target, artifact, mode, attempt,
+					Duration.ofNanos(System.nanoTime() - start), statusCode, ex));
+			throw ex;
+		}
+	}
+
+	private void notifyListener(DeployAttempt attempt) {
+		try {
+			this.listener.attemptCompleted(attempt);
+		}
+		catch (RuntimeException ex) {
+			// The outcome of the attempt must not be replaced by the listener's failure
+			console.log("Deploy listener failed for {}: {}", attempt.artifact().getPath(), ex.toString());
+		}
+	}
+
+	private boolean isThrottled(Exception ex) {
+		if (ex instanceof RestClientResponseException restClientException) {
+			HttpStatusCode statusCode = restClientException.getStatusCode();
+			return HttpStatus.TOO_MANY_REQUESTS.isSameCodeAs(statusCode)
+					|| HttpStatus.SERVICE_UNAVAILABLE.isSameCodeAs(statusCode);
+		}
+		return false;
+	}
+
+	static boolean isCausedBySocketException(Throwable ex) {
 		while (ex != null) {
 			if (ex instanceof SocketException) {
 				return true;
@@ -144,12 +321,13 @@ class HttpArtifactory implements Artifactory {
 		return false;
 	}
 
-	private void trySleep(Duration time) {
+	private void sleep(Duration time) {
 		try {
 			Thread.sleep(time.toMillis());
 		}
 		catch (InterruptedException ex) {
 			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to retry deployment", ex);
 		}
 	}
 
@@ -161,10 +339,14 @@ class HttpArtifactory implements Artifactory {
 			.build();
 		URI uri = uriComponents.encode().toUri();
 		Checksums checksums = artifact.getChecksums();
-		return RequestEntity.put(uri)
+		BodyBuilder request = RequestEntity.put(uri)
 			.contentType(MediaType.APPLICATION_OCTET_STREAM)
 			.header("X-Checksum-Sha1", checksums.getSha1())
 			.header("X-Checksum-Md5", checksums.getMd5());
+		if (checksums.getSha256() != null) {
+			request.header("X-Checksum-Sha256", checksums.getSha256());
+		}
+		return request;
 	}
 
 	private String buildMatrixParams(Map<String, String> matrixParams) {
@@ -177,6 +359,50 @@ class HttpArtifactory implements Artifactory {
 		return matrix.toString();
 	}
 
+	@Override
+	public Map<String, String> getSha1Checksums(String repository, Collection<String> paths) {
+		Set<String> requested = new HashSet<>(paths);
+		List<String> directories = paths.stream().map(this::getDirectory).distinct().toList();
+		Map<String, String> checksums = new HashMap<>();
+		for (int i = 0; i < directories.size(); i += DIRECTORIES_PER_QUERY) {
+			List<String> batch = directories.subList(i, Math.min(i + DIRECTORIES_PER_QUERY, directories.size()));
+			for (AqlItem item : findItems(repository, batch)) {
+				String path = "/" + (".".equals(item.path()) ? "" : item.path() + "/") + item.name();
+				if (requested.contains(path) && item.actualSha1() != null) {
+					checksums.put(path, item.actualSha1());
+				}
+			}
+		}
+		return checksums;
+	}
+
+	private String getDirectory(String path) {
+		String directory = path.substring(1, Math.max(1, path.lastIndexOf('/')));
+		return (!directory.isEmpty()) ? directory : ".";
+	}
+
+	private List<AqlItem> findItems(String repository, List<String> directories) {
+		Map<String, Object> criteria = new LinkedHashMap<>();
+		criteria.put("repo", repository);
+		criteria.put("$or", directories.stream().map((directory) -> Map.of("path", directory)).toList());
+		String query = "items.find(%s).include(\"repo\",\"path\",\"name\",\"actual_sha1\")"
+			.formatted(toJson(criteria));
+		console.debug("Searching for existing artifacts using {}", query);
+		URI uri = UriComponentsBuilder.fromUriString(this.uri).path("api/search/aql").build().encode().toUri();
+		RequestEntity<String> request = RequestEntity.post(uri).contentType(MediaType.TEXT_PLAIN).body(query);
+		AqlResults results = this.restTemplate.exchange(request, AqlResults.class).getBody();
+		return (results != null && results.results() != null) ? results.results() : Collections.emptyList();
+	}
+
+	private String toJson(Object value) {
+		try {
+			return objectMapper.writeValueAsString(value);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 	@Override
 	public void addBuildRun(String project, String buildName, BuildRun buildRun) {
 		console.debug("Adding {} build {}", buildName, buildRun.number());
@@ -196,4 +422,14 @@ class HttpArtifactory implements Artifactory {
 		exchange.getBody();
 	}
 
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	record AqlResults(List<AqlItem> results) {
+
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	record AqlItem(String repo, String path, String name, @JsonProperty("actual_sha1") String actualSha1) {
+
+	}
+
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Target;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * Converter to create a list of {@link Target targets} from a {@link String}. Each line
+ * describes a target in the form {@code <uri> [<repository>]}. Credentials for the target
+ * can be provided in the user info of its URI, with any reserved characters
+ * percent-encoded. The user info is redacted from the message of any exception thrown
+ * for an invalid URI.
+ *
+ * @author Andy Wilkinson
+ */
+class StringToTargetsConverter implements Converter<String, List<Target>> {
+
+	@Override
+	public List<Target> convert(String source) {
+		BufferedReader reader = new BufferedReader(new StringReader(source));
+		return reader.lines().map(this::toTarget).filter(Objects::nonNull).toList();
+	}
+
+	private Target toTarget(String line) {
+		if (!StringUtils.hasText(line)) {
+			return null;
+		}
+		String[] components = line.trim().split("\\s+");
+		Assert.state(components.length <= 2, "Targets must be configured in the form <uri> [<repository>]");
+		URI uri = toUri(components[0]);
+		String repository = (components.length > 1) ? components[1] : null;
+		String userInfo = uri.getRawUserInfo();
+		if (userInfo == null) {
+			return new Target(uri, null, null, repository);
+		}
+		int colonIndex = userInfo.indexOf(':');
+		String username = (colonIndex != -1) ? userInfo.substring(0, colonIndex) : userInfo;
+		String password = (colonIndex != -1) ? userInfo.substring(colonIndex + 1) : null;
+		return new Target(UriComponentsBuilder.fromUri(uri).userInfo(null).build(true).toUri(), decode(username),
+				decode(password), repository);
+	}
+
+	private URI toUri(String value) {
+		URI uri;
+		try {
+			uri = URI.create(value);
+		}
+		catch (IllegalArgumentException ex) {
+			// The exception's message includes the URI, and therefore any credentials
+			throw invalidUri(value);
+		}
+		if (uri.getHost() == null) {
+			throw invalidUri(value);
+		}
+		return uri;
+	}
+
+	private IllegalStateException invalidUri(String value) {
+		return new IllegalStateException(
+				"Target URI '%s' is invalid. Reserved characters in its user info must be percent-encoded"
+					.formatted(redactUserInfo(value)));
+	}
+
+	private String redactUserInfo(String uri) {
+		int authorityStart = uri.indexOf("://");
+		int userInfoEnd = uri.lastIndexOf('@');
+		return (authorityStart != -1 && userInfoEnd > authorityStart)
+				? uri.substring(0, authorityStart + 3) + "******" + uri.substring(userInfoEnd) : uri;
+	}
+
+	private String decode(String value) {
+		return (value != null) ? UriUtils.decode(value, StandardCharsets.UTF_8) : null;
+	}
+
+}
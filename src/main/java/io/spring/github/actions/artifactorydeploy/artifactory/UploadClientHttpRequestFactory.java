@@ -0,0 +1,513 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+
+/**
+ * {@link ClientHttpRequestFactory} that uses the JDK's {@link HttpClient} and that can
+ * upload an {@link UploadBody}. A body whose content is a file is sent using
+ * {@link BodyPublishers#ofFile} so that it is read directly by the client rather than
+ * being copied through the {@link OutputStream} of the request. Any other content is
+ * streamed from its input stream. In both cases, the body is sent with a fixed length.
+ * <p>
+ * When an upload's bandwidth is limited, the client is only given more of the body once
+ * the thread that is executing the request has paid the {@link BandwidthLimiter} for what
+ * it has already taken. Waiting for the limiter therefore happens on that thread rather
+ * than on one of the client's threads.
+ * <p>
+ * Uploads are not limited by an overall request timeout as sending a large or
+ * bandwidth-limited body may take a long time. Instead, an upload fails if no progress
+ * is made in sending the body for longer than the read timeout or if, once the body has
+ * been sent, no response is received within the read timeout.
+ * <p>
+ * Only requests whose body is an {@link UploadBody} are sent differently. All other
+ * requests, such as checksum deploys, AQL searches, and publishing build info, are
+ * created and executed by a {@link JdkClientHttpRequestFactory} that uses the same
+ * client and read timeout. They are sent, time out, and have their responses mapped to
+ * exceptions exactly as they would be if that factory were used directly.
+ *
+ * @author Andy Wilkinson
+ */
+class UploadClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	private static final Set<String> DISALLOWED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+			"upgrade");
+
+	private final HttpClient httpClient;
+
+	private final Duration readTimeout;
+
+	private final JdkClientHttpRequestFactory delegate;
+
+	UploadClientHttpRequestFactory(HttpClient httpClient, Duration readTimeout) {
+		this.httpClient = httpClient;
+		this.readTimeout = readTimeout;
+		this.delegate = new JdkClientHttpRequestFactory(httpClient);
+		this.delegate.setReadTimeout(readTimeout);
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		return new UploadClientHttpRequest(this.delegate.createRequest(uri, httpMethod));
+	}
+
+	/**
+	 * Content that is to be uploaded as the body of a request.
+	 *
+	 * @param content the content
+	 * @param contentLength the length of the content
+	 * @param bandwidthLimiter the limiter for the rate at which the content is uploaded or
+	 * {@code null}
+	 */
+	record UploadBody(Resource content, long contentLength, BandwidthLimiter bandwidthLimiter) {
+
+		UploadBody(Resource content, long contentLength) {
+			this(content, contentLength, null);
+		}
+
+		BodyPublisher getBodyPublisher() throws IOException {
+			if (this.content instanceof FileSystemResource file) {
+				return BodyPublishers.ofFile(file.getFile().toPath());
+			}
+			return BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(() -> {
+				try {
+					return this.content.getInputStream();
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}), this.contentLength);
+		}
+
+	}
+
+	/**
+	 * {@link HttpMessageConverter} that writes an {@link UploadBody}. When the body is
+	 * being written to a request created by an {@link UploadClientHttpRequestFactory}, the
+	 * body is handed to the request for it to upload. Otherwise, the content is copied to
+	 * the output message's body.
+	 */
+	static class UploadBodyConverter implements HttpMessageConverter<UploadBody> {
+
+		@Override
+		public boolean canRead(Class<?> clazz, MediaType mediaType) {
+			return false;
+		}
+
+		@Override
+		public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+			return UploadBody.class.isAssignableFrom(clazz);
+		}
+
+		@Override
+		public List<MediaType> getSupportedMediaTypes() {
+			return List.of(MediaType.APPLICATION_OCTET_STREAM);
+		}
+
+		@Override
+		public UploadBody read(Class<? extends UploadBody> clazz, HttpInputMessage inputMessage) {
+			throw new UnsupportedOperationException("Reading an UploadBody is not supported");
+		}
+
+		@Override
+		public void write(UploadBody body, MediaType contentType, HttpOutputMessage outputMessage)
+				throws IOException {
+			HttpHeaders headers = outputMessage.getHeaders();
+			if (headers.getContentType() == null) {
+				headers.setContentType((contentType != null) ? contentType : MediaType.APPLICATION_OCTET_STREAM);
+			}
+			if (headers.getContentLength() < 0) {
+				headers.setContentLength(body.contentLength());
+			}
+			if (outputMessage instanceof UploadClientHttpRequest request) {
+				request.setUploadBody(body);
+			}
+			else {
+				Resource resource = (body.bandwidthLimiter() != null) ? body.bandwidthLimiter().limit(body.content())
+						: body.content();
+				try (InputStream content = resource.getInputStream()) {
+					content.transferTo(outputMessage.getBody());
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * {@link ClientHttpRequest} that uploads an {@link UploadBody} using the
+	 * {@link HttpClient} or otherwise delegates to a request created by the
+	 * {@link JdkClientHttpRequestFactory}.
+	 */
+	private class UploadClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+		private final ClientHttpRequest delegate;
+
+		private UploadBody uploadBody;
+
+		UploadClientHttpRequest(ClientHttpRequest delegate) {
+			this.delegate = delegate;
+		}
+
+		void setUploadBody(UploadBody uploadBody) {
+			this.uploadBody = uploadBody;
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return this.delegate.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return this.delegate.getURI();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return this.delegate.getBody();
+		}
+
+		@Override
+		public void setBody(Body body) {
+			((StreamingHttpOutputMessage) this.delegate).setBody(body);
+		}
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+			return (this.uploadBody != null) ? upload() : this.delegate.execute();
+		}
+
+		private ClientHttpResponse upload() throws IOException {
+			ProgressTrackingBodyPublisher body = new ProgressTrackingBodyPublisher(
+					this.uploadBody.getBodyPublisher(), this.uploadBody.bandwidthLimiter());
+			HttpRequest.Builder request = HttpRequest.newBuilder(getURI()).method(getMethod().name(), body);
+			getHeaders().forEach((name, values) -> {
+				if (!DISALLOWED_HEADERS.contains(name.toLowerCase())) {
+					values.forEach((value) -> request.header(name, value));
+				}
+			});
+			CompletableFuture<HttpResponse<InputStream>> response = UploadClientHttpRequestFactory.this.httpClient
+				.sendAsync(request.build(), BodyHandlers.ofInputStream());
+			try {
+				awaitBodySent(body, response);
+				return new UploadClientHttpResponse(awaitResponse(response));
+			}
+			catch (InterruptedException ex) {
+				response.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while uploading to " + getURI(), ex);
+			}
+			catch (ExecutionException ex) {
+				throw (ex.getCause() instanceof IOException ioException) ? ioException
+						: new IOException(ex.getCause());
+			}
+		}
+
+		private void awaitBodySent(ProgressTrackingBodyPublisher body,
+				CompletableFuture<HttpResponse<InputStream>> response)
+				throws InterruptedException, ExecutionException, HttpTimeoutException {
+			long idleTimeout = UploadClientHttpRequestFactory.this.readTimeout.toNanos();
+			CompletableFuture<Object> sentOrResponded = CompletableFuture.anyOf(body.sent, response);
+			if (body.bandwidthLimiter != null) {
+				sentOrResponded.whenComplete((result, ex) -> body.wake());
+				if (!body.pay(sentOrResponded, idleTimeout)) {
+					response.cancel(true);
+					throw new HttpTimeoutException("Upload to " + getURI() + " made no progress for "
+							+ UploadClientHttpRequestFactory.this.readTimeout);
+				}
+			}
+			while (true) {
+				long idle = System.nanoTime() - body.lastProgress.get();
+				try {
+					sentOrResponded.get(Math.max(idleTimeout - idle, 0), TimeUnit.NANOSECONDS);
+					return;
+				}
+				catch (TimeoutException ex) {
+					if (System.nanoTime() - body.lastProgress.get() >= idleTimeout) {
+						response.cancel(true);
+						throw new HttpTimeoutException("Upload to " + getURI() + " made no progress for "
+								+ UploadClientHttpRequestFactory.this.readTimeout);
+					}
+				}
+			}
+		}
+
+		private HttpResponse<InputStream> awaitResponse(CompletableFuture<HttpResponse<InputStream>> response)
+				throws InterruptedException, ExecutionException, HttpTimeoutException {
+			try {
+				return response.get(UploadClientHttpRequestFactory.this.readTimeout.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			catch (TimeoutException ex) {
+				response.cancel(true);
+				throw new HttpTimeoutException("No response to upload to " + getURI() + " within "
+						+ UploadClientHttpRequestFactory.this.readTimeout);
+			}
+		}
+
+	}
+
+	/**
+	 * {@link BodyPublisher} that records when the client last took some of the body and
+	 * when it has taken all of it. When the bandwidth of the body is limited, the client's
+	 * demand is held back and only passed on, one item at a time, by the thread that
+	 * {@link #pay pays} the limiter for each item that the client has taken.
+	 */
+	private static final class ProgressTrackingBodyPublisher implements BodyPublisher {
+
+		private final BodyPublisher delegate;
+
+		private final BandwidthLimiter bandwidthLimiter;
+
+		private final AtomicLong lastProgress = new AtomicLong(System.nanoTime());
+
+		private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+		private final Object monitor = new Object();
+
+		private Subscription subscription;
+
+		private long requested;
+
+		private boolean itemRequested;
+
+		private int unpaid;
+
+		ProgressTrackingBodyPublisher(BodyPublisher delegate, BandwidthLimiter bandwidthLimiter) {
+			this.delegate = delegate;
+			this.bandwidthLimiter = bandwidthLimiter;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.delegate.contentLength();
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+			this.delegate.subscribe(new Subscriber<ByteBuffer>() {
+
+				@Override
+				public void onSubscribe(Subscription subscription) {
+					subscriber.onSubscribe((ProgressTrackingBodyPublisher.this.bandwidthLimiter != null)
+							? limited(subscription) : subscription);
+				}
+
+				@Override
+				public void onNext(ByteBuffer item) {
+					ProgressTrackingBodyPublisher.this.lastProgress.set(System.nanoTime());
+					if (ProgressTrackingBodyPublisher.this.bandwidthLimiter != null) {
+						taken(item.remaining());
+					}
+					subscriber.onNext(item);
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+					subscriber.onError(throwable);
+				}
+
+				@Override
+				public void onComplete() {
+					ProgressTrackingBodyPublisher.this.sent.complete(null);
+					subscriber.onComplete();
+				}
+
+			});
+		}
+
+		private Subscription limited(Subscription subscription) {
+			synchronized (this.monitor) {
+				this.subscription = subscription;
+				this.requested = 0;
+				this.itemRequested = false;
+			}
+			return new Subscription() {
+
+				@Override
+				public void request(long n) {
+					synchronized (ProgressTrackingBodyPublisher.this.monitor) {
+						if (ProgressTrackingBodyPublisher.this.subscription == subscription) {
+							long total = ProgressTrackingBodyPublisher.this.requested + n;
+							ProgressTrackingBodyPublisher.this.requested = (total < 0) ? Long.MAX_VALUE : total;
+							ProgressTrackingBodyPublisher.this.monitor.notifyAll();
+						}
+					}
+				}
+
+				@Override
+				public void cancel() {
+					subscription.cancel();
+					wake();
+				}
+
+			};
+		}
+
+		private void taken(int bytes) {
+			synchronized (this.monitor) {
+				this.unpaid += bytes;
+				this.itemRequested = false;
+				this.monitor.notifyAll();
+			}
+		}
+
+		void wake() {
+			synchronized (this.monitor) {
+				this.monitor.notifyAll();
+			}
+		}
+
+		/**
+		 * Pay the bandwidth limiter for each item that the client takes, requesting the
+		 * next item once the previous item has been paid for, until the given future
+		 * completes.
+		 * @param done future that completes when paying should stop
+		 * @param idleTimeout the time, in nanoseconds, for which the client can take no
+		 * items before paying stops
+		 * @return {@code true} if paying stopped because the future completed or
+		 * {@code false} if the client made no progress within the idle timeout
+		 * @throws InterruptedException if interrupted while paying
+		 */
+		boolean pay(CompletableFuture<?> done, long idleTimeout) throws InterruptedException {
+			while (true) {
+				int bytes = 0;
+				Subscription next = null;
+				synchronized (this.monitor) {
+					if (this.unpaid > 0) {
+						bytes = this.unpaid;
+						this.unpaid = 0;
+					}
+					else if (done.isDone()) {
+						return true;
+					}
+					else if (this.requested > 0 && !this.itemRequested && this.subscription != null) {
+						this.requested--;
+						this.itemRequested = true;
+						next = this.subscription;
+					}
+					else {
+						long idle = System.nanoTime() - this.lastProgress.get();
+						if (idle >= idleTimeout) {
+							return false;
+						}
+						TimeUnit.NANOSECONDS.timedWait(this.monitor, idleTimeout - idle);
+					}
+				}
+				if (bytes > 0) {
+					this.bandwidthLimiter.acquire(bytes);
+					this.lastProgress.set(System.nanoTime());
+				}
+				if (next != null) {
+					next.request(1);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * {@link ClientHttpResponse} for the response to an upload.
+	 */
+	private static class UploadClientHttpResponse implements ClientHttpResponse {
+
+		private final HttpResponse<InputStream> response;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		UploadClientHttpResponse(HttpResponse<InputStream> response) {
+			this.response = response;
+			response.headers().map().forEach(this.headers::addAll);
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() {
+			return HttpStatusCode.valueOf(this.response.statusCode());
+		}
+
+		@Override
+		public String getStatusText() {
+			HttpStatus status = HttpStatus.resolve(this.response.statusCode());
+			return (status != null) ? status.getReasonPhrase() : "";
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return this.response.body();
+		}
+
+		@Override
+		public void close() {
+			try {
+				this.response.body().close();
+			}
+			catch (IOException ex) {
+				// Ignore
+			}
+		}
+
+	}
+
+}
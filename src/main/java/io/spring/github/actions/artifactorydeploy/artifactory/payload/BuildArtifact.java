@@ -16,6 +16,9 @@
 
 package io.spring.github.actions.artifactorydeploy.artifactory.payload;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
 import org.springframework.util.Assert;
 
 /**
@@ -23,6 +26,7 @@ import org.springframework.util.Assert;
  *
  * @param type type of the artifact
  * @param sha1 SHA1 checksum of the artifact
+ * @param sha256 SHA-256 checksum of the artifact or {@code null}
  * @param md5 MD5 checksum of the artifact
  * @param name name of the artifact
  * @author Phillip Webb
@@ -30,15 +34,21 @@ import org.springframework.util.Assert;
  * @author Andy Wilkinson
  * @see BuildInfo
  */
-public record BuildArtifact(String type, String sha1, String md5, String name) {
+@JsonInclude(Include.NON_NULL)
+public record BuildArtifact(String type, String sha1, String sha256, String md5, String name) {
 
 	public BuildArtifact(String type, String sha1, String md5, String name) {
+		this(type, sha1, null, md5, name);
+	}
+
+	public BuildArtifact(String type, String sha1, String sha256, String md5, String name) {
 		Assert.hasText(type, "Type must not be empty");
 		Assert.hasText(sha1, "SHA1 must not be empty");
 		Assert.hasText(md5, "MD5 must not be empty");
 		Assert.hasText(name, "Name must not be empty");
 		this.type = type;
 		this.sha1 = sha1;
+		this.sha256 = sha256;
 		this.md5 = md5;
 		this.name = name;
 	}
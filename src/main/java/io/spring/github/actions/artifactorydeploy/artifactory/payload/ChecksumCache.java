@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory.payload;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the {@link Checksums} of files that is persisted between deployments so that
+ * files that have not changed are not hashed again. A file is identified by its absolute
+ * path, size, last modified time, and, where the file system provides one, its file key
+ * (for example, its inode). The cache is stored in a compact binary format and only
+ * retains the entries for the files that were used by the most recent deployment.
+ *
+ * @author Andy Wilkinson
+ */
+public final class ChecksumCache {
+
+	private static final int MAGIC = 0x41444343;
+
+	private static final int VERSION = 1;
+
+	private static final HexFormat hex = HexFormat.of();
+
+	private final Path file;
+
+	private final Map<Key, Checksums> cached;
+
+	private final Map<Key, Checksums> used = new ConcurrentHashMap<>();
+
+	private final AtomicInteger hits = new AtomicInteger();
+
+	private ChecksumCache(Path file, Map<Key, Checksums> cached) {
+		this.file = file;
+		this.cached = cached;
+	}
+
+	/**
+	 * Return the checksums of the given file, using the cached checksums if the file has
+	 * not changed and otherwise calling the given calculator.
+	 * @param file the file
+	 * @param calculator the calculator of the file's checksums
+	 * @return the checksums
+	 */
+	public Checksums getChecksums(File file, Supplier<Checksums> calculator) {
+		Key key = Key.of(file);
+		if (key == null) {
+			return calculator.get();
+		}
+		Checksums checksums = this.cached.get(key);
+		if (checksums != null) {
+			this.hits.incrementAndGet();
+		}
+		else {
+			checksums = calculator.get();
+		}
+		this.used.put(key, checksums);
+		return checksums;
+	}
+
+	/**
+	 * Return the number of times that cached checksums have been used.
+	 * @return the number of cache hits
+	 */
+	public int getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Save the checksums that have been used to the cache's file.
+	 * @throws IOException if the cache cannot be saved
+	 */
+	public void save() throws IOException {
+		Path parent = this.file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temp = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(this.used.size());
+				for (Map.Entry<Key, Checksums> entry : this.used.entrySet()) {
+					write(output, entry.getKey(), entry.getValue());
+				}
+			}
+			Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private void write(DataOutputStream output, Key key, Checksums checksums) throws IOException {
+		output.writeUTF(key.path());
+		output.writeLong(key.size());
+		output.writeLong(key.lastModified());
+		output.writeUTF(key.fileKey());
+		output.write(hex.parseHex(checksums.getSha1()));
+		output.write(hex.parseHex(checksums.getMd5()));
+		output.writeBoolean(checksums.getSha256() != null);
+		if (checksums.getSha256() != null) {
+			output.write(hex.parseHex(checksums.getSha256()));
+		}
+	}
+
+	/**
+	 * Load the cache from the given file. If the file does not exist or was not written
+	 * by a compatible version of the cache, the cache is empty.
+	 * @param file the cache's file
+	 * @return the cache
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ChecksumCache load(Path file) throws IOException {
+		Map<Key, Checksums> cached = new HashMap<>();
+		if (Files.isRegularFile(file)) {
+			try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+				if (input.readInt() == MAGIC && input.readInt() == VERSION) {
+					int entries = input.readInt();
+					for (int i = 0; i < entries; i++) {
+						Key key = new Key(input.readUTF(), input.readLong(), input.readLong(), input.readUTF());
+						cached.put(key, readChecksums(input));
+					}
+				}
+			}
+			catch (EOFException ex) {
+				cached.clear();
+			}
+		}
+		return new ChecksumCache(file, cached);
+	}
+
+	private static Checksums readChecksums(DataInputStream input) throws IOException {
+		String sha1 = readHex(input, 20);
+		String md5 = readHex(input, 16);
+		String sha256 = input.readBoolean() ? readHex(input, 32) : null;
+		return new Checksums(sha1, md5, sha256);
+	}
+
+	private static String readHex(DataInputStream input, int length) throws IOException {
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return hex.formatHex(bytes);
+	}
+
+	/**
+	 * The identity of a file in the cache.
+	 *
+	 * @param path the absolute path of the file
+	 * @param size the size of the file
+	 * @param lastModified the time, in nanoseconds since the epoch, at which the file was
+	 * last modified
+	 * @param fileKey the key that uniquely identifies the file or an empty string
+	 */
+	private record Key(String path, long size, long lastModified, String fileKey) {
+
+		static Key of(File file) {
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+				Object fileKey = attributes.fileKey();
+				return new Key(file.getAbsolutePath(), attributes.size(),
+						attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+						(fileKey != null) ? fileKey.toString() : "");
+			}
+			catch (IOException ex) {
+				return null;
+			}
+		}
+
+	}
+
+}
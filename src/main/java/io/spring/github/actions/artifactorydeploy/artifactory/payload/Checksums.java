@@ -24,7 +24,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.style.ToStringCreator;
 
 /**
- * SHA1 and MD5 Checksums supported by artifactory.
+ * SHA1, MD5, and SHA-256 Checksums supported by artifactory. The SHA-256 checksum is
+ * optional.
  *
  * @author Phillip Webb
  * @author Madhura Bhave
@@ -35,11 +36,21 @@ public class Checksums {
 
 	private final String md5;
 
+	private final String sha256;
+
 	public Checksums(String sha1, String md5) {
+		this(sha1, md5, null);
+	}
+
+	public Checksums(String sha1, String md5, String sha256) {
 		Checksum.SHA1.validate(sha1);
 		Checksum.MD5.validate(md5);
+		if (sha256 != null) {
+			Checksum.SHA256.validate(sha256);
+		}
 		this.sha1 = sha1;
 		this.md5 = md5;
+		this.sha256 = sha256;
 	}
 
 	public String getSha1() {
@@ -50,14 +61,23 @@ public class Checksums {
 		return this.md5;
 	}
 
+	public String getSha256() {
+		return this.sha256;
+	}
+
 	@Override
 	public String toString() {
-		return new ToStringCreator(this).append("sha1", this.sha1).append("md5", this.md5).toString();
+		return new ToStringCreator(this).append("sha1", this.sha1).append("md5", this.md5)
+			.append("sha256", this.sha256)
+			.toString();
 	}
 
 	public static Checksums calculate(Resource content) {
-		Map<Checksum, String> all = Checksum.calculateAll(content);
-		return new Checksums(all.get(Checksum.SHA1), all.get(Checksum.MD5));
+		return of(Checksum.calculateAll(content));
+	}
+
+	static Checksums of(Map<Checksum, String> all) {
+		return new Checksums(all.get(Checksum.SHA1), all.get(Checksum.MD5), all.get(Checksum.SHA256));
 	}
 
 }
@@ -17,10 +17,14 @@
 package io.spring.github.actions.artifactorydeploy.artifactory.payload;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import io.spring.github.actions.artifactorydeploy.io.ChecksumInputStream;
+
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
@@ -42,7 +46,14 @@ public class DeployableFileArtifact implements DeployableArtifact {
 
 	private final File file;
 
+	private final ChecksumCache checksumCache;
+
 	public DeployableFileArtifact(String path, File file, Map<String, String> properties, Checksums checksums) {
+		this(path, file, properties, checksums, null);
+	}
+
+	public DeployableFileArtifact(String path, File file, Map<String, String> properties, Checksums checksums,
+			ChecksumCache checksumCache) {
 		Assert.isTrue(file.exists(), "File '" + file + "' does not exist");
 		Assert.isTrue(file.isFile(), "File '" + file + "' does not refer to a file");
 		this.path = path;
@@ -50,6 +61,7 @@ public class DeployableFileArtifact implements DeployableArtifact {
 				: Collections.emptyMap();
 		this.checksums = checksums;
 		this.file = file;
+		this.checksumCache = checksumCache;
 	}
 
 	@Override
@@ -63,13 +75,37 @@ public class DeployableFileArtifact implements DeployableArtifact {
 	}
 
 	@Override
-	public Checksums getChecksums() {
+	public synchronized Checksums getChecksums() {
 		if (this.checksums == null) {
-			this.checksums = Checksums.calculate(getContent());
+			this.checksums = (this.checksumCache != null)
+					? this.checksumCache.getChecksums(this.file, () -> Checksums.calculate(getContent()))
+					: Checksums.calculate(getContent());
 		}
 		return this.checksums;
 	}
 
+	/**
+	 * Read the content of the artifact using the given reader. If the artifact's checksums
+	 * have not yet been calculated, they are calculated from the content as the reader
+	 * reads it, avoiding a second pass over the file.
+	 * @param reader the reader of the content
+	 * @throws IOException if the content cannot be read
+	 */
+	public synchronized void readContent(ContentReader reader) throws IOException {
+		if (this.checksums != null) {
+			try (InputStream content = getContent().getInputStream()) {
+				reader.read(content);
+			}
+			return;
+		}
+		try (ChecksumInputStream content = new ChecksumInputStream(getContent().getInputStream())) {
+			reader.read(content);
+			Checksums calculated = Checksums.of(content.getChecksums());
+			this.checksums = (this.checksumCache != null) ? this.checksumCache.getChecksums(this.file, () -> calculated)
+					: calculated;
+		}
+	}
+
 	@Override
 	public Resource getContent() {
 		return new FileSystemResource(this.file);
@@ -93,4 +129,19 @@ public class DeployableFileArtifact implements DeployableArtifact {
 		return path;
 	}
 
+	/**
+	 * Callback used to read the content of a {@link DeployableFileArtifact}.
+	 */
+	@FunctionalInterface
+	public interface ContentReader {
+
+		/**
+		 * Read the given content.
+		 * @param content the content
+		 * @throws IOException if the content cannot be read
+		 */
+		void read(InputStream content) throws IOException;
+
+	}
+
 }
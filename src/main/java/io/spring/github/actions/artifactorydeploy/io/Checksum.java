@@ -21,11 +21,16 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.StandardCharsets;
-import java.security.DigestInputStream;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -35,7 +40,6 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 import org.springframework.util.FileCopyUtils;
-import org.springframework.util.StreamUtils;
 
 /**
  * Support for checksums used by the artifactory resource.
@@ -52,7 +56,18 @@ public enum Checksum {
 	/**
 	 * SHA-1 Checksum.
 	 */
-	SHA1("SHA-1", 40);
+	SHA1("SHA-1", 40),
+
+	/**
+	 * SHA-256 Checksum.
+	 */
+	SHA256("SHA-256", 64);
+
+	private static final int BUFFER_SIZE = 128 * 1024;
+
+	private static final long MAPPING_THRESHOLD = 32 * 1024 * 1024;
+
+	private static final long MAPPED_REGION_SIZE = 256 * 1024 * 1024;
 
 	private final String algorithm;
 
@@ -81,8 +96,13 @@ public enum Checksum {
 		Assert.isTrue(checksum.length() == this.length, name() + " must be " + this.length + " characters long");
 	}
 
-	private DigestInputStream getDigestStream(InputStream content) throws NoSuchAlgorithmException {
-		return new DigestInputStream(content, MessageDigest.getInstance(this.algorithm));
+	private MessageDigest getMessageDigest() {
+		try {
+			return MessageDigest.getInstance(this.algorithm);
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
 	}
 
 	/**
@@ -125,6 +145,9 @@ public enum Checksum {
 	public static Map<Checksum, String> calculateAll(Resource content) {
 		try {
 			Assert.notNull(content, "Content must not be null");
+			if (content.isFile()) {
+				return calculateAll(content.getFile().toPath(), MAPPING_THRESHOLD);
+			}
 			return calculateAll(content.getInputStream());
 		}
 		catch (IOException ex) {
@@ -142,37 +165,69 @@ public enum Checksum {
 		return calculateAll(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
 	}
 
-	private static Map<Checksum, String> calculateAll(InputStream content) {
-		Assert.notNull(content, "Content must not be null");
-		try {
-			try {
-				Map<Checksum, DigestInputStream> streams = new LinkedHashMap<>();
-				for (Checksum checksum : values()) {
-					DigestInputStream digestStream = checksum.getDigestStream(content);
-					streams.put(checksum, digestStream);
-					content = digestStream;
+	/**
+	 * Calculate all checksums for the specified file. The file is read through a
+	 * {@link FileChannel} or, if it is larger than the given threshold, memory-mapped.
+	 * @param file the file
+	 * @param mappingThreshold the size above which the file is memory-mapped
+	 * @return a map of all checksums
+	 * @throws IOException if the file cannot be read
+	 */
+	static Map<Checksum, String> calculateAll(Path file, long mappingThreshold) throws IOException {
+		Map<Checksum, MessageDigest> digests = getMessageDigests();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > mappingThreshold) {
+				for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+					long regionSize = Math.min(MAPPED_REGION_SIZE, size - position);
+					update(digests, channel.map(MapMode.READ_ONLY, position, regionSize));
+				}
+			}
+			else {
+				ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+				while (channel.read(buffer) != -1) {
+					update(digests, buffer.flip());
+					buffer.clear();
 				}
-				StreamUtils.drain(content);
-				return getDigests(streams);
 			}
-			finally {
-				content.close();
+		}
+		return getDigests(digests);
+	}
+
+	private static Map<Checksum, String> calculateAll(InputStream content) {
+		Assert.notNull(content, "Content must not be null");
+		Map<Checksum, MessageDigest> digests = getMessageDigests();
+		try (content) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = content.read(buffer)) != -1) {
+				update(digests, ByteBuffer.wrap(buffer, 0, read));
 			}
 		}
-		catch (Exception ex) {
-			throw new RuntimeException(ex);
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
 		}
+		return getDigests(digests);
 	}
 
-	private static Map<Checksum, String> getDigests(Map<Checksum, DigestInputStream> streams) {
-		Map<Checksum, String> checksums = new LinkedHashMap<>(streams.size());
-		streams.forEach((checksum, stream) -> checksums.put(checksum, getDigestHex(stream)));
-		return checksums;
+	static Map<Checksum, MessageDigest> getMessageDigests() {
+		Map<Checksum, MessageDigest> digests = new EnumMap<>(Checksum.class);
+		for (Checksum checksum : values()) {
+			digests.put(checksum, checksum.getMessageDigest());
+		}
+		return digests;
 	}
 
-	private static String getDigestHex(DigestInputStream inputStream) {
-		byte[] digest = inputStream.getMessageDigest().digest();
-		return HexFormat.of().formatHex(digest);
+	static void update(Map<Checksum, MessageDigest> digests, ByteBuffer content) {
+		for (MessageDigest digest : digests.values()) {
+			digest.update(content.duplicate());
+		}
+	}
+
+	static Map<Checksum, String> getDigests(Map<Checksum, MessageDigest> digests) {
+		Map<Checksum, String> checksums = new LinkedHashMap<>(digests.size());
+		digests.forEach((checksum, digest) -> checksums.put(checksum, HexFormat.of().formatHex(digest.digest())));
+		return checksums;
 	}
 
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link FilterInputStream} that calculates all {@link Checksum checksums} of the content
+ * that is read through it. Each buffer that is read is used to update every checksum,
+ * allowing the checksums to be calculated as a side effect of some other processing of
+ * the content, such as signing it.
+ *
+ * @author Andy Wilkinson
+ */
+public class ChecksumInputStream extends FilterInputStream {
+
+	private final Map<Checksum, MessageDigest> digests = Checksum.getMessageDigests();
+
+	private Map<Checksum, String> checksums;
+
+	/**
+	 * Create a new {@code ChecksumInputStream} that will read from the given stream.
+	 * @param in the underlying input stream
+	 */
+	public ChecksumInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		int read = super.read();
+		if (read != -1) {
+			update(ByteBuffer.wrap(new byte[] { (byte) read }));
+		}
+		return read;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		int read = super.read(bytes, offset, length);
+		if (read > 0) {
+			update(ByteBuffer.wrap(bytes, offset, read));
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		byte[] buffer = new byte[(int) Math.min(n, 8192)];
+		long skipped = 0;
+		while (skipped < n) {
+			int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+			if (read == -1) {
+				break;
+			}
+			skipped += read;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readLimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("Mark and reset are not supported");
+	}
+
+	private void update(ByteBuffer content) {
+		Assert.state(this.checksums == null, "Checksums have already been calculated");
+		Checksum.update(this.digests, content);
+	}
+
+	/**
+	 * Read any remaining content and return the checksums of all of the content that has
+	 * been read.
+	 * @return a map of all checksums
+	 * @throws IOException if the remaining content cannot be read
+	 */
+	public Map<Checksum, String> getChecksums() throws IOException {
+		if (this.checksums == null) {
+			transferTo(OutputStream.nullOutputStream());
+			this.checksums = Checksum.getDigests(this.digests);
+		}
+		return this.checksums;
+	}
+
+}
@@ -98,7 +98,8 @@ public class MavenBuildModulesGenerator {
 			return Optional.empty();
 		}
 		Checksums checksums = deployableArtifact.getChecksums();
-		return Optional.of(new BuildArtifact(type, checksums.getSha1(), checksums.getMd5(), filename));
+		return Optional.of(new BuildArtifact(type, checksums.getSha1(), checksums.getSha256(), checksums.getMd5(),
+				filename));
 	}
 
 	private String getType(String name) {
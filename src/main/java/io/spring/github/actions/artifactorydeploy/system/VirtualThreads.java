@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.system;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Reflective access to virtual threads so that they can be used when running on Java 21
+ * or later while still compiling against Java 17.
+ *
+ * @author Andy Wilkinson
+ */
+public final class VirtualThreads {
+
+	private static final Method ofVirtual = findMethod(Thread.class, "ofVirtual");
+
+	private static final Method builderName = findMethod(findClass("java.lang.Thread$Builder"), "name", String.class,
+			long.class);
+
+	private static final Method builderFactory = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+
+	private static final Method newThreadPerTaskExecutor = findMethod(Executors.class, "newThreadPerTaskExecutor",
+			ThreadFactory.class);
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Return whether virtual threads are supported by the current JVM.
+	 * @return {@code true} if virtual threads are supported
+	 */
+	public static boolean isSupported() {
+		return ofVirtual != null && builderName != null && builderFactory != null && newThreadPerTaskExecutor != null;
+	}
+
+	/**
+	 * Create a new {@link ExecutorService} that starts a new virtual thread for each
+	 * task.
+	 * @param namePrefix the prefix for the names of the virtual threads
+	 * @return the executor service
+	 * @throws IllegalStateException if virtual threads are not supported
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		Assert.state(isSupported(), "Virtual threads require Java 21 or later");
+		Object builder = ReflectionUtils.invokeMethod(ofVirtual, null);
+		builder = ReflectionUtils.invokeMethod(builderName, builder, namePrefix, 0L);
+		ThreadFactory threadFactory = (ThreadFactory) ReflectionUtils.invokeMethod(builderFactory, builder);
+		return (ExecutorService) ReflectionUtils.invokeMethod(newThreadPerTaskExecutor, null, threadFactory);
+	}
+
+	private static Class<?> findClass(String name) {
+		try {
+			return Class.forName(name);
+		}
+		catch (ClassNotFoundException ex) {
+			return null;
+		}
+	}
+
+	private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+		return (type != null) ? ReflectionUtils.findMethod(type, name, parameterTypes) : null;
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.net.SocketException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.spring.github.actions.artifactorydeploy.DeploymentSchedulerTests.TestDeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AdaptiveConcurrencyController}.
+ *
+ * @author Andy Wilkinson
+ */
+class AdaptiveConcurrencyControllerTests {
+
+	private static final URI PRIMARY = URI.create("https://repo.example.com");
+
+	private static final URI ADDITIONAL = URI.create("https://dr.example.com");
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	private final AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(4, PRIMARY,
+			this.nanoTime::get);
+
+	private BoundedExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		this.executor = new BoundedExecutor(Executors.newSingleThreadExecutor(), 8);
+		this.controller.start(this.executor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.executor.close();
+	}
+
+	@Test
+	void startSetsInitialLimit() {
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void whenThroughputImprovesLimitIsIncreasedAdditively() {
+		window(1000, 100);
+		assertThat(this.executor.getLimit()).isEqualTo(3);
+		window(2000, 100);
+		assertThat(this.executor.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void whenThroughputIsUnchangedLimitIsHeld() {
+		window(1000, 100);
+		window(1000, 100);
+		assertThat(this.executor.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void limitIsNotIncreasedBeyondMaximum() {
+		window(1000, 100);
+		window(2000, 100);
+		window(4000, 100);
+		assertThat(this.executor.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void whenThrottledLimitIsDecreasedMultiplicatively() {
+		window(1000, 100);
+		window(2000, 100);
+		advance(10);
+		attempt(10, HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void whenServiceUnavailableLimitIsDecreasedMultiplicatively() {
+		window(1000, 100);
+		window(2000, 100);
+		advance(10);
+		attempt(10, HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void whenConnectionIsResetLimitIsDecreasedMultiplicatively() {
+		window(1000, 100);
+		window(2000, 100);
+		advance(10);
+		this.controller.attemptCompleted(new DeployAttempt(PRIMARY, new TestDeployableArtifact("/a.jar", 0),
+				Mode.CONTENT, 1, Duration.ofMillis(10), null,
+				new ResourceAccessException("Reset", new SocketException())));
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void whenThrottledRepeatedlyByAttemptsThatStartedBeforeDecreaseLimitIsDecreasedOnce() {
+		window(1000, 100);
+		window(2000, 100);
+		advance(50);
+		attempt(50, HttpStatus.TOO_MANY_REQUESTS);
+		attempt(50, HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void whenLatencyRisesLimitIsDecreased() {
+		window(1000, 100);
+		window(2000, 100);
+		window(1000, 250);
+		assertThat(this.executor.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void whenLatencyRisesInProportionToSizeLimitIsHeld() {
+		window(1000, 100);
+		window(4000, 400);
+		assertThat(this.executor.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void whenArtifactsAreDeployedByChecksumLimitIsHeld() {
+		window(1000, 100);
+		window(Mode.CHECKSUM, 1000000, 10);
+		assertThat(this.executor.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void whenAdditionalTargetIsSlowLimitIsHeld() {
+		window(1000, 100);
+		window(ADDITIONAL, Mode.CONTENT, 1000, 1000);
+		window(ADDITIONAL, Mode.CONTENT, 1000, 1000);
+		assertThat(this.executor.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void whenAdditionalTargetThrottlesLimitIsDecreasedMultiplicatively() {
+		window(1000, 100);
+		window(2000, 100);
+		advance(10);
+		attempt(ADDITIONAL, 10, HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void limitIsNeverDecreasedBelowOne() {
+		for (int i = 0; i < 5; i++) {
+			attempt(0, HttpStatus.TOO_MANY_REQUESTS);
+		}
+		assertThat(this.executor.getLimit()).isEqualTo(1);
+	}
+
+	@Test
+	void stopReturnsSettledLimit() {
+		window(1000, 100);
+		assertThat(this.controller.stop()).isEqualTo(3);
+	}
+
+	@Test
+	void whenStoppedAttemptsAreIgnored() {
+		this.controller.stop();
+		window(1000, 100);
+		assertThat(this.executor.getLimit()).isEqualTo(2);
+	}
+
+	private void window(long size, long durationMillis) {
+		window(Mode.CONTENT, size, durationMillis);
+	}
+
+	private void window(Mode mode, long size, long durationMillis) {
+		window(PRIMARY, mode, size, durationMillis);
+	}
+
+	private void window(URI target, Mode mode, long size, long durationMillis) {
+		advance(durationMillis);
+		for (int i = 0; i < 4; i++) {
+			this.controller.attemptCompleted(new DeployAttempt(target, new TestDeployableArtifact("/a.jar", size), mode,
+					1, Duration.ofMillis(durationMillis), HttpStatus.CREATED, null));
+		}
+	}
+
+	private void attempt(long durationMillis, HttpStatusCode status) {
+		attempt(PRIMARY, durationMillis, status);
+	}
+
+	private void attempt(URI target, long durationMillis, HttpStatusCode status) {
+		this.controller.attemptCompleted(new DeployAttempt(target, new TestDeployableArtifact("/a.jar", 0),
+				Mode.CONTENT, 1, Duration.ofMillis(durationMillis), status, new RuntimeException()));
+	}
+
+	private void advance(long millis) {
+		this.nanoTime.addAndGet(Duration.ofMillis(millis).toNanos());
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BoundedExecutor}.
+ *
+ * @author Andy Wilkinson
+ */
+class BoundedExecutorTests {
+
+	@Test
+	void createWhenLimitIsZeroThrowsException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new BoundedExecutor(Executors.newSingleThreadExecutor(), 0))
+			.withMessage("Limit must be greater than 0");
+	}
+
+	@Test
+	void submitRunsTaskUsingExecutor() throws Exception {
+		try (BoundedExecutor executor = new BoundedExecutor(
+				Executors.newSingleThreadExecutor((task) -> new Thread(task, "bounded-test")), 1)) {
+			String[] threadName = new String[1];
+			executor.submit(() -> threadName[0] = Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+			assertThat(threadName[0]).isEqualTo("bounded-test");
+		}
+	}
+
+	@Test
+	void submitWhenLimitReachedBlocksUntilTaskCompletes() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (BoundedExecutor executor = new BoundedExecutor(Executors.newFixedThreadPool(2), 1)) {
+			CompletableFuture<Void> first = executor.submit(() -> await(release));
+			CompletableFuture<CompletableFuture<Void>> second = CompletableFuture.supplyAsync(() -> {
+				try {
+					return executor.submit(() -> {
+					});
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+			});
+			Thread.sleep(200);
+			assertThat(second).isNotDone();
+			release.countDown();
+			first.get(5, TimeUnit.SECONDS);
+			second.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void setLimitWhenIncreasedAllowsMoreTasksToBeInFlight() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(2);
+		try (BoundedExecutor executor = new BoundedExecutor(Executors.newFixedThreadPool(2), 1)) {
+			executor.setLimit(2);
+			CompletableFuture<Void> first = executor.submit(() -> {
+				started.countDown();
+				await(release);
+			});
+			CompletableFuture<Void> second = executor.submit(() -> {
+				started.countDown();
+				await(release);
+			});
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(executor.getLimit()).isEqualTo(2);
+			release.countDown();
+			CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void setLimitWhenReducedBlocksSubmissionUntilInFlightTasksComplete() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (BoundedExecutor executor = new BoundedExecutor(Executors.newFixedThreadPool(2), 2)) {
+			CompletableFuture<Void> first = executor.submit(() -> await(release));
+			executor.setLimit(1);
+			CompletableFuture<CompletableFuture<Void>> second = CompletableFuture.supplyAsync(() -> {
+				try {
+					return executor.submit(() -> {
+					});
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+			});
+			Thread.sleep(200);
+			assertThat(second).isNotDone();
+			release.countDown();
+			first.get(5, TimeUnit.SECONDS);
+			second.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void cancelInterruptsRunningTasksAndRejectsFurtherTasks() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		try (BoundedExecutor executor = new BoundedExecutor(Executors.newSingleThreadExecutor(), 2)) {
+			executor.submit(() -> {
+				started.countDown();
+				try {
+					Thread.sleep(10000);
+				}
+				catch (InterruptedException ex) {
+					interrupted.countDown();
+				}
+			});
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			executor.cancel();
+			assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> executor.submit(() -> {
+			}));
+		}
+	}
+
+	private void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
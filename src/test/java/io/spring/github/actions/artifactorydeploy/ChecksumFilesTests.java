@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.ChecksumCache;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.Checksums;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link ChecksumFiles}.
+ *
+ * @author Andy Wilkinson
+ */
+class ChecksumFilesTests {
+
+	private static final String SHA1 = "a9993e364706816aba3e25717850c26c9cd0d89d";
+
+	private static final String MD5 = "900150983cd24fb0d6963f7d28e17f72";
+
+	private static final String SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+	private static final String OTHER_SHA1 = "0000000000000000000000000000000000000000";
+
+	@TempDir
+	File temp;
+
+	@Test
+	void createArtifactWhenChecksumFilesArePresentUsesChecksumFiles() throws IOException {
+		File file = createFile("foo.jar", "different content");
+		writeChecksumFiles(file, SHA1, MD5, SHA256);
+		DeployableArtifact artifact = create(0, file);
+		assertThat(artifact.getChecksums().getSha1()).isEqualTo(SHA1);
+		assertThat(artifact.getChecksums().getMd5()).isEqualTo(MD5);
+		assertThat(artifact.getChecksums().getSha256()).isEqualTo(SHA256);
+	}
+
+	@Test
+	void createArtifactWhenChecksumFileIncludesFileNameUsesChecksum() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		writeChecksumFiles(file, SHA1 + "  foo.jar\n", MD5.toUpperCase() + " *foo.jar\n", null);
+		DeployableArtifact artifact = create(0, file);
+		assertThat(artifact.getChecksums().getSha1()).isEqualTo(SHA1);
+		assertThat(artifact.getChecksums().getMd5()).isEqualTo(MD5);
+	}
+
+	@Test
+	void createArtifactWhenMd5FileIsMissingCalculatesChecksums() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		Files.writeString(new File(this.temp, "foo.jar.sha1").toPath(), OTHER_SHA1);
+		assertThat(create(0, file).getChecksums().getSha1()).isEqualTo(SHA1);
+	}
+
+	@Test
+	void createArtifactWhenChecksumFileIsInvalidCalculatesChecksums() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		writeChecksumFiles(file, "not a checksum", MD5, null);
+		assertThat(create(0, file).getChecksums().getSha1()).isEqualTo(SHA1);
+	}
+
+	@Test
+	void createArtifactWhenChecksumFileIsOlderThanArtifactCalculatesChecksums() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		writeChecksumFiles(file, OTHER_SHA1, MD5, null);
+		File sha1File = new File(this.temp, "foo.jar.sha1");
+		assertThat(sha1File.setLastModified(file.lastModified() - 60000)).isTrue();
+		ChecksumFiles checksumFiles = new ChecksumFiles(0, () -> 0.5);
+		DeployableArtifact artifact = checksumFiles.createArtifact("/foo.jar", file, Collections.emptyMap(), null);
+		assertThat(artifact.getChecksums().getSha1()).isEqualTo(SHA1);
+		assertThat(checksumFiles.getUsed()).isZero();
+	}
+
+	@Test
+	void createArtifactWhenVerifiedAndChecksumFilesMatchReturnsChecksums() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		writeChecksumFiles(file, SHA1, MD5, SHA256);
+		ChecksumFiles checksumFiles = new ChecksumFiles(1, () -> 0.5);
+		DeployableArtifact artifact = checksumFiles.createArtifact("/foo.jar", file, Collections.emptyMap(), null);
+		assertThat(artifact.getChecksums().getSha1()).isEqualTo(SHA1);
+		assertThat(checksumFiles.getUsed()).isOne();
+		assertThat(checksumFiles.getVerified()).isOne();
+	}
+
+	@Test
+	void createArtifactWhenVerifiedAndChecksumFilesDoNotMatchThrowsException() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		writeChecksumFiles(file, OTHER_SHA1, MD5, null);
+		DeployableArtifact artifact = create(1, file);
+		assertThatIllegalStateException().isThrownBy(artifact::getChecksums)
+			.withMessageContaining("Checksum files of '%s' do not match its content".formatted(file));
+	}
+
+	@Test
+	void createArtifactWhenVerifiedAndCachedChecksumsMatchChecksumFilesHashesContent() throws IOException {
+		File file = createFile("foo.jar", "abc");
+		writeChecksumFiles(file, OTHER_SHA1, MD5, null);
+		ChecksumCache cache = ChecksumCache.load(this.temp.toPath().resolve("checksums.cache"));
+		cache.getChecksums(file, () -> new Checksums(OTHER_SHA1, MD5));
+		ChecksumFiles checksumFiles = new ChecksumFiles(1, () -> 0.5);
+		DeployableArtifact artifact = checksumFiles.createArtifact("/foo.jar", file, Collections.emptyMap(), cache);
+		assertThatIllegalStateException().isThrownBy(artifact::getChecksums)
+			.withMessageContaining("Checksum files of '%s' do not match its content".formatted(file));
+	}
+
+	@Test
+	void createArtifactVerifiesSampleOfArtifacts() throws IOException {
+		File foo = createFile("foo.jar", "abc");
+		File bar = createFile("bar.jar", "abc");
+		writeChecksumFiles(foo, SHA1, MD5, null);
+		writeChecksumFiles(bar, SHA1, MD5, null);
+		double[] random = { 0.05, 0.5 };
+		int[] calls = { 0 };
+		ChecksumFiles checksumFiles = new ChecksumFiles(0.1, () -> random[calls[0]++]);
+		checksumFiles.createArtifact("/foo.jar", foo, Collections.emptyMap(), null);
+		checksumFiles.createArtifact("/bar.jar", bar, Collections.emptyMap(), null);
+		assertThat(checksumFiles.getUsed()).isEqualTo(2);
+		assertThat(checksumFiles.getVerified()).isOne();
+	}
+
+	private DeployableArtifact create(double verificationRate, File file) {
+		return new ChecksumFiles(verificationRate, () -> 0.5).createArtifact("/" + file.getName(), file,
+				Collections.emptyMap(), null);
+	}
+
+	private File createFile(String name, String content) throws IOException {
+		File file = new File(this.temp, name);
+		Files.writeString(file.toPath(), content);
+		return file;
+	}
+
+	private void writeChecksumFiles(File file, String sha1, String md5, String sha256) throws IOException {
+		Files.writeString(new File(this.temp, file.getName() + ".sha1").toPath(), sha1);
+		Files.writeString(new File(this.temp, file.getName() + ".md5").toPath(), md5);
+		if (sha256 != null) {
+			Files.writeString(new File(this.temp, file.getName() + ".sha256").toPath(), sha256);
+		}
+	}
+
+}
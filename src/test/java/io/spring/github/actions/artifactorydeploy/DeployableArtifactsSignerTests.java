@@ -84,6 +84,18 @@ class DeployableArtifactsSignerTests {
 		assertThat(signatureResource.getChecksums()).isNotNull();
 	}
 
+	@Test
+	void signCalculatesChecksumsOfSignedFileArtifactFromSameRead() throws Exception {
+		DeployableArtifact artifact = artifact("/com/example/myapp.jar", "test".getBytes(StandardCharsets.UTF_8));
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact);
+		MultiValueMap<Category, DeployableArtifact> signed = this.signer.addSignatures(batchedArtifacts);
+		assertThat(signed.getFirst(Category.SIGNATURE).getChecksums()).isNotNull();
+		Files.delete(new File(this.tempDir, "com/example/myapp.jar").toPath());
+		assertThat(artifact.getChecksums().getSha1()).isEqualTo("a94a8fe5ccb19ba61c4c0873d391e987982fbbd3");
+		assertThat(artifact.getChecksums().getMd5()).isEqualTo("098f6bcd4621d373cade4e832627b4f6");
+	}
+
 	private DeployableArtifact artifact(String path, byte[] bytes) {
 		File artifact = new File(this.tempDir, path);
 		artifact.getParentFile().mkdirs();
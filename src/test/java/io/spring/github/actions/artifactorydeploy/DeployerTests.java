@@ -24,18 +24,26 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy;
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.ArtifactProperties;
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Build;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Order;
 import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Server;
 import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory;
 import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory.BuildRun;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildModule;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.ChecksumCache;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
 import io.spring.github.actions.artifactorydeploy.io.DirectoryScanner;
 import io.spring.github.actions.artifactorydeploy.io.FileSet;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
@@ -48,10 +56,15 @@ import org.mockito.quality.Strictness;
 import org.springframework.util.FileCopyUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -83,6 +96,29 @@ class DeployerTests {
 	@Captor
 	private ArgumentCaptor<DeployableArtifact> artifactCaptor;
 
+	@Captor
+	private ArgumentCaptor<List<DeployableArtifact>> archiveCaptor;
+
+	private int threads = 1;
+
+	private boolean virtualThreads;
+
+	private boolean adaptiveThreads;
+
+	private String journal;
+
+	private String checksumCache;
+
+	private boolean checksumFiles;
+
+	private double checksumFilesVerificationRate;
+
+	private boolean skipUnchanged;
+
+	private boolean pipeline;
+
+	private boolean archive;
+
 	@Test
 	void deployWhenFolderIsEmptyThrowsException() {
 		given(this.directoryScanner.scan(any(File.class))).willReturn(FileSet.of());
@@ -152,6 +188,28 @@ class DeployerTests {
 			.containsKey("build.timestamp");
 	}
 
+	@Test
+	void deployWhenInterruptedThrowsExceptionAndDoesNotAddBuildRun() throws Exception {
+		File artifact = new File(this.tempDir, "com/example/foo/0.0.1/foo-0.0.1.jar");
+		artifact.getParentFile().mkdirs();
+		Files.createFile(artifact.toPath());
+		given(this.directoryScanner.scan(any(File.class))).willReturn(FileSet.of(artifact));
+		Thread deployingThread = Thread.currentThread();
+		willAnswer((invocation) -> {
+			deployingThread.interrupt();
+			return null;
+		}).given(this.artifactory).deploy(any(), any());
+		try {
+			assertThatIllegalStateException().isThrownBy(() -> deployer(1234).deploy())
+				.withMessage("Interrupted while deploying");
+			assertThat(Thread.currentThread().isInterrupted()).isTrue();
+			verify(this.artifactory, never()).addBuildRun(any(), any(), any());
+		}
+		finally {
+			Thread.interrupted();
+		}
+	}
+
 	@Test
 	void deployDeploysMultipleArtifactsInBatches() throws Exception {
 		List<File> files = new ArrayList<>();
@@ -187,6 +245,214 @@ class DeployerTests {
 		}
 	}
 
+	@Test
+	void deployWithPipelineDeploysMultipleArtifactsInBatches() throws Exception {
+		this.pipeline = true;
+		this.threads = 2;
+		List<File> files = new ArrayList<>();
+		for (String name : List.of("foo", "bar", "baz")) {
+			File module = createStructure(this.tempDir, "com", "example", name, "0.0.1");
+			files.add(new File(module, name + "-0.0.1.jar"));
+			files.add(new File(module, name + "-0.0.1.pom"));
+		}
+		createEmptyFiles(files);
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(files));
+		willAnswer((invocation) -> {
+			DeployableArtifact artifact = invocation.getArgument(1);
+			assertThat(artifact.getChecksums().getSha1()).isEqualTo("da39a3ee5e6b4b0d3255bfef95601890afd80709");
+			return null;
+		}).given(this.artifactory).deploy(eq("libs-example-local"), any());
+		deployer(1234).deploy();
+		verify(this.artifactory, times(6)).deploy(eq("libs-example-local"), this.artifactCaptor.capture());
+		List<String> paths = this.artifactCaptor.getAllValues().stream().map(DeployableArtifact::getPath).toList();
+		for (String name : List.of("foo", "bar", "baz")) {
+			String path = "/com/example/%s/0.0.1/%s-0.0.1".formatted(name, name);
+			assertThat(paths.indexOf(path + ".jar")).isLessThan(paths.indexOf(path + ".pom"));
+		}
+		verify(this.artifactory).addBuildRun(eq(null), eq("my-build"), this.buildRunCaptor.capture());
+		assertThat(this.buildRunCaptor.getValue().modules()).hasSize(3);
+	}
+
+	@Test
+	void deployWithArchiveDeploysSmallArtifactsInArchivesPerDirectory() throws Exception {
+		this.archive = true;
+		List<File> files = new ArrayList<>();
+		for (String name : List.of("foo", "bar")) {
+			File module = createStructure(this.tempDir, "com", "example", name, "0.0.1");
+			files.add(new File(module, name + "-0.0.1.jar"));
+			files.add(new File(module, name + "-0.0.1.pom"));
+			files.add(new File(module, name + "-0.0.1-sources.jar"));
+			files.add(new File(module, name + "-0.0.1-javadoc.jar"));
+		}
+		createEmptyFiles(files);
+		Files.write(files.get(0).toPath(), new byte[11 * 1024]);
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(files));
+		deployer(1234).deploy();
+		verify(this.artifactory, times(4)).deploy(eq("libs-example-local"), this.artifactCaptor.capture());
+		assertThat(this.artifactCaptor.getAllValues()).extracting(DeployableArtifact::getPath)
+			.containsExactlyInAnyOrder("/com/example/foo/0.0.1/foo-0.0.1.jar", "/com/example/foo/0.0.1/foo-0.0.1.pom",
+					"/com/example/bar/0.0.1/bar-0.0.1.jar", "/com/example/bar/0.0.1/bar-0.0.1.pom");
+		verify(this.artifactory, times(2)).deployArchive(eq("libs-example-local"), this.archiveCaptor.capture());
+		assertThat(this.archiveCaptor.getAllValues())
+			.map((archived) -> archived.stream().map(DeployableArtifact::getPath).toList())
+			.containsExactlyInAnyOrder(
+					List.of("/com/example/foo/0.0.1/foo-0.0.1-javadoc.jar",
+							"/com/example/foo/0.0.1/foo-0.0.1-sources.jar"),
+					List.of("/com/example/bar/0.0.1/bar-0.0.1-javadoc.jar",
+							"/com/example/bar/0.0.1/bar-0.0.1-sources.jar"));
+		verify(this.artifactory).addBuildRun(eq(null), eq("my-build"), this.buildRunCaptor.capture());
+		assertThat(this.buildRunCaptor.getValue().modules()).hasSize(2);
+	}
+
+	@Test
+	void deployUsesConfiguredNumberOfThreads() throws Exception {
+		this.threads = 2;
+		Set<Thread> deployThreads = deployAndCaptureThreads();
+		assertThat(deployThreads).hasSize(2).allMatch((thread) -> thread.getName().startsWith("artifactory-deploy-"));
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	void deployWithVirtualThreadsUsesVirtualThreads() throws Exception {
+		this.threads = 2;
+		this.virtualThreads = true;
+		Set<Thread> deployThreads = deployAndCaptureThreads();
+		assertThat(deployThreads).hasSize(4)
+			.allMatch((thread) -> thread.getClass().getName().equals("java.lang.VirtualThread"))
+			.allMatch((thread) -> thread.getName().startsWith("artifactory-deploy-"));
+	}
+
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_20)
+	void deployWithVirtualThreadsWhenUnsupportedFallsBackToPlatformThreads() throws Exception {
+		this.threads = 2;
+		this.virtualThreads = true;
+		Set<Thread> deployThreads = deployAndCaptureThreads();
+		assertThat(deployThreads).hasSize(2).allMatch((thread) -> thread.getName().startsWith("artifactory-deploy-"));
+	}
+
+	@Test
+	void deployWithAdaptiveThreadsDeploysConcurrently() throws Exception {
+		this.threads = 2;
+		this.adaptiveThreads = true;
+		Set<Thread> deployThreads = deployAndCaptureThreads();
+		assertThat(deployThreads).hasSize(2).allMatch((thread) -> thread.getName().startsWith("artifactory-deploy-"));
+	}
+
+	@Test
+	void deployWithJournalSkipsArtifactsDeployedByPreviousRunOfSameBuild() throws Exception {
+		this.journal = new File(this.tempDir, "deploy.journal").getAbsolutePath();
+		File foo = new File(createStructure(this.tempDir, "com", "example", "foo", "0.0.1"), "foo-0.0.1.jar");
+		File bar = new File(createStructure(this.tempDir, "com", "example", "bar", "0.0.1"), "bar-0.0.1.jar");
+		createEmptyFiles(List.of(foo, bar));
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(foo, bar));
+		willAnswer((invocation) -> {
+			DeployableArtifact artifact = invocation.getArgument(1);
+			if (artifact.getPath().contains("foo")) {
+				throw new RuntimeException("Deployment failed");
+			}
+			return null;
+		}).given(this.artifactory).deploy(any(), any());
+		assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> deployer(1234).deploy());
+		clearInvocations(this.artifactory);
+		willDoNothing().given(this.artifactory).deploy(any(), any());
+		deployer(1234).deploy();
+		verify(this.artifactory).deploy(eq("libs-example-local"), this.artifactCaptor.capture());
+		assertThat(this.artifactCaptor.getValue().getPath()).isEqualTo("/com/example/foo/0.0.1/foo-0.0.1.jar");
+		verify(this.artifactory).addBuildRun(eq(null), eq("my-build"), this.buildRunCaptor.capture());
+		assertThat(this.buildRunCaptor.getValue().modules()).hasSize(2);
+	}
+
+	@Test
+	void deployWithJournalFromDifferentBuildDeploysAllArtifacts() throws Exception {
+		this.journal = new File(this.tempDir, "deploy.journal").getAbsolutePath();
+		File foo = new File(createStructure(this.tempDir, "com", "example", "foo", "0.0.1"), "foo-0.0.1.jar");
+		createEmptyFiles(List.of(foo));
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(foo));
+		deployer(1234).deploy();
+		deployer(1235).deploy();
+		verify(this.artifactory, times(2)).deploy(eq("libs-example-local"), any());
+	}
+
+	@Test
+	void deployWithChecksumCacheSavesChecksumsOfArtifacts() throws Exception {
+		File cache = new File(this.tempDir, "checksums.cache");
+		this.checksumCache = cache.getAbsolutePath();
+		File foo = new File(createStructure(this.tempDir, "com", "example", "foo", "0.0.1"), "foo-0.0.1.jar");
+		createEmptyFiles(List.of(foo));
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(foo));
+		deployer(1234).deploy();
+		ChecksumCache checksums = ChecksumCache.load(cache.toPath());
+		assertThat(checksums.getChecksums(foo, () -> null).getSha1())
+			.isEqualTo("da39a3ee5e6b4b0d3255bfef95601890afd80709");
+		assertThat(checksums.getHits()).isOne();
+	}
+
+	@Test
+	void deployWithChecksumFilesUsesChecksumFiles() throws Exception {
+		this.checksumFiles = true;
+		File foo = new File(createStructure(this.tempDir, "com", "example", "foo", "0.0.1"), "foo-0.0.1.jar");
+		createEmptyFiles(List.of(foo));
+		Files.writeString(new File(foo.getParentFile(), "foo-0.0.1.jar.sha1").toPath(),
+				"0000000000000000000000000000000000000000");
+		Files.writeString(new File(foo.getParentFile(), "foo-0.0.1.jar.md5").toPath(),
+				"00000000000000000000000000000000");
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(foo));
+		deployer(1234).deploy();
+		verify(this.artifactory).deploy(eq("libs-example-local"), this.artifactCaptor.capture());
+		assertThat(this.artifactCaptor.getValue().getChecksums().getSha1())
+			.isEqualTo("0000000000000000000000000000000000000000");
+	}
+
+	@Test
+	void deployWithSkipUnchangedDoesNotDeployArtifactsThatAreUnchanged() throws Exception {
+		this.skipUnchanged = true;
+		File foo = new File(createStructure(this.tempDir, "com", "example", "foo", "0.0.1"), "foo-0.0.1.jar");
+		File bar = new File(createStructure(this.tempDir, "com", "example", "bar", "0.0.1"), "bar-0.0.1.jar");
+		createEmptyFiles(List.of(foo, bar));
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(foo, bar));
+		given(this.artifactory.getSha1Checksums(eq("libs-example-local"), any()))
+			.willReturn(Map.of("/com/example/foo/0.0.1/foo-0.0.1.jar", "da39a3ee5e6b4b0d3255bfef95601890afd80709",
+					"/com/example/bar/0.0.1/bar-0.0.1.jar", "0000000000000000000000000000000000000000"));
+		deployer(1234).deploy();
+		verify(this.artifactory).deploy(eq("libs-example-local"), this.artifactCaptor.capture());
+		assertThat(this.artifactCaptor.getValue().getPath()).isEqualTo("/com/example/bar/0.0.1/bar-0.0.1.jar");
+		verify(this.artifactory).addBuildRun(eq(null), eq("my-build"), this.buildRunCaptor.capture());
+		assertThat(this.buildRunCaptor.getValue().modules()).hasSize(2);
+	}
+
+	@Test
+	void deployWithSkipUnchangedWhenFindingExistingArtifactsFailsDeploysAllArtifacts() throws Exception {
+		this.skipUnchanged = true;
+		File foo = new File(createStructure(this.tempDir, "com", "example", "foo", "0.0.1"), "foo-0.0.1.jar");
+		createEmptyFiles(List.of(foo));
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(foo));
+		given(this.artifactory.getSha1Checksums(eq("libs-example-local"), any()))
+			.willThrow(new RuntimeException("Forbidden"));
+		deployer(1234).deploy();
+		verify(this.artifactory).deploy(eq("libs-example-local"), any());
+	}
+
+	private Set<Thread> deployAndCaptureThreads() throws IOException {
+		List<File> files = new ArrayList<>();
+		for (String name : List.of("foo", "bar", "baz", "qux")) {
+			File module = createStructure(this.tempDir, "com", "example", name, "0.0.1");
+			files.add(new File(module, name + "-0.0.1.jar"));
+		}
+		createEmptyFiles(files);
+		given(this.directoryScanner.scan(any())).willReturn(FileSet.of(files));
+		Set<Thread> deployThreads = ConcurrentHashMap.newKeySet();
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		willAnswer((invocation) -> {
+			deployThreads.add(Thread.currentThread());
+			barrier.await(5, TimeUnit.SECONDS);
+			return null;
+		}).given(this.artifactory).deploy(any(), any());
+		deployer(1234).deploy();
+		verify(this.artifactory, times(4)).deploy(eq("libs-example-local"), any());
+		return deployThreads;
+	}
+
 	@Test
 	void deployWhenHasArtifactPropertiesDeploysWithAdditionalProperties() throws Exception {
 		File artifact = new File(this.tempDir, "com/example/foo/0.0.1/foo-0.0.1.jar");
@@ -323,17 +589,23 @@ class DeployerTests {
 	}
 
 	private Deployer deployer(int buildNumber, String project, ArtifactProperties artifactProperties) {
-		return new Deployer(createProperties(buildNumber, project, artifactProperties), this.artifactory,
-				this.directoryScanner);
+		ArtifactoryDeployProperties properties = createProperties(buildNumber, project, artifactProperties);
+		return new Deployer(properties, this.artifactory, this.directoryScanner,
+				new AdaptiveConcurrencyController(properties), new DeploymentReport(System::nanoTime, null),
+				new DeploymentMetrics());
 	}
 
 	private ArtifactoryDeployProperties createProperties(int buildNumber, String project,
 			ArtifactProperties artifactProperties) {
 		return new ArtifactoryDeployProperties(new Server(URI.create("https://repo.example.com"), "alice", "secret"),
 				null,
-				new Deploy(project, this.tempDir.getAbsolutePath(), "libs-example-local", 1,
+				new Deploy(project, this.tempDir.getAbsolutePath(), "libs-example-local", this.threads,
+						this.virtualThreads, this.adaptiveThreads, null, Order.PATH, this.journal,
+						this.checksumCache, this.checksumFiles, this.checksumFilesVerificationRate, this.skipUnchanged,
+						this.pipeline, this.archive, null, null, null,
 						new Build("my-build", buildNumber, URI.create("https://ci.example.com/builds/" + buildNumber)),
-						(artifactProperties != null) ? List.of(artifactProperties) : Collections.emptyList()));
+						(artifactProperties != null) ? List.of(artifactProperties) : Collections.emptyList()),
+				null, null);
 	}
 
 }
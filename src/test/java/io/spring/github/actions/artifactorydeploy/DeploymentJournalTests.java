@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableFileArtifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DeploymentJournal}.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentJournalTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void openWhenFileDoesNotExistCreatesJournal() throws IOException {
+		Path file = this.temp.toPath().resolve("journal/deploy.journal");
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			assertThat(journal.contains(artifact("/com/example/foo/1.0/foo-1.0.jar", "foo"))).isFalse();
+		}
+		assertThat(Files.readAllLines(file, StandardCharsets.UTF_8)).containsExactly("# my-build 1");
+	}
+
+	@Test
+	void containsWhenArtifactWasAddedBySameBuildReturnsTrue() throws IOException {
+		Path file = this.temp.toPath().resolve("deploy.journal");
+		DeployableArtifact artifact = artifact("/com/example/foo/1.0/foo-1.0.jar", "foo");
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			journal.add(artifact);
+		}
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			assertThat(journal.contains(artifact)).isTrue();
+		}
+	}
+
+	@Test
+	void containsWhenArtifactWasAddedByDifferentBuildReturnsFalse() throws IOException {
+		Path file = this.temp.toPath().resolve("deploy.journal");
+		DeployableArtifact artifact = artifact("/com/example/foo/1.0/foo-1.0.jar", "foo");
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			journal.add(artifact);
+		}
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 2)) {
+			assertThat(journal.contains(artifact)).isFalse();
+		}
+		assertThat(Files.readAllLines(file, StandardCharsets.UTF_8)).containsExactly("# my-build 2");
+	}
+
+	@Test
+	void containsWhenArtifactContentHasChangedReturnsFalse() throws IOException {
+		Path file = this.temp.toPath().resolve("deploy.journal");
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			journal.add(artifact("/com/example/foo/1.0/foo-1.0.jar", "foo"));
+		}
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			assertThat(journal.contains(artifact("/com/example/foo/1.0/foo-1.0.jar", "bar"))).isFalse();
+		}
+	}
+
+	@Test
+	void openIgnoresIncompleteEntries() throws IOException {
+		Path file = this.temp.toPath().resolve("deploy.journal");
+		DeployableArtifact artifact = artifact("/com/example/foo/1.0/foo-1.0.jar", "foo");
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			journal.add(artifact);
+		}
+		Files.writeString(file, "0123abcd", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		try (DeploymentJournal journal = DeploymentJournal.open(file, "my-build", 1)) {
+			assertThat(journal.contains(artifact)).isTrue();
+		}
+	}
+
+	private DeployableArtifact artifact(String path, String content) throws IOException {
+		File file = new File(this.temp, path);
+		file.getParentFile().mkdirs();
+		Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+		return new DeployableFileArtifact(path, file, null, null);
+	}
+
+}
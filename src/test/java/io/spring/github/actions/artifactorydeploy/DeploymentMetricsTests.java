@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
+import io.spring.github.actions.artifactorydeploy.DeploymentSchedulerTests.TestDeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DeploymentMetrics}.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentMetricsTests {
+
+	private static final URI PRIMARY = URI.create("https://repo.example.com");
+
+	private static final URI ADDITIONAL = URI.create("https://dr.example.com");
+
+	private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+	private final DeploymentMetrics metrics = new DeploymentMetrics(this.registry);
+
+	@TempDir
+	private Path temp;
+
+	@Test
+	void timeRecordsTimerForPhase() {
+		this.metrics.time(Phase.SCAN, () -> {
+		});
+		assertThat(this.metrics.time(Phase.CHECKSUM, () -> "result")).isEqualTo("result");
+		assertThat(this.registry.get("artifactory.deploy.phase").tag("phase", "scan").timer().count()).isOne();
+		assertThat(this.registry.get("artifactory.deploy.phase").tag("phase", "checksum").timer().count()).isOne();
+	}
+
+	@Test
+	void attemptCompletedRecordsRequestTimer() {
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.BAD_GATEWAY, new RuntimeException()));
+		assertThat(this.registry.get("artifactory.deploy.requests")
+			.tags("mode", "content", "status", "201", "outcome", "success")
+			.timer()
+			.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(100);
+		assertThat(this.registry.get("artifactory.deploy.requests")
+			.tags("mode", "content", "status", "502", "outcome", "failure")
+			.timer()
+			.count()).isOne();
+	}
+
+	@Test
+	void attemptCompletedWithoutResponseRecordsRequestWithNoStatus() {
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, null, new RuntimeException()));
+		assertThat(this.registry.get("artifactory.deploy.requests").tag("status", "none").timer().count()).isOne();
+	}
+
+	@Test
+	void attemptCompletedRecordsUploadedBytesForSuccessfulContentAttempts() {
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.BAD_GATEWAY, new RuntimeException()));
+		this.metrics.attemptCompleted(attempt(Mode.CHECKSUM, 1, HttpStatus.CREATED, null));
+		assertThat(this.registry.get("artifactory.deploy.uploaded").summary().totalAmount()).isEqualTo(1024);
+	}
+
+	@Test
+	void attemptCompletedCountsRetries() {
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.BAD_REQUEST, new RuntimeException()));
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 2, HttpStatus.BAD_REQUEST, new RuntimeException()));
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 3, HttpStatus.CREATED, null));
+		assertThat(this.registry.get("artifactory.deploy.retries").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void attemptCompletedCountsChecksumHitsAndFallbacks() {
+		this.metrics.attemptCompleted(attempt(Mode.CHECKSUM, 1, HttpStatus.CREATED, null));
+		this.metrics.attemptCompleted(attempt(Mode.CHECKSUM, 1, HttpStatus.CREATED, null));
+		this.metrics.attemptCompleted(attempt(Mode.CHECKSUM, 1, HttpStatus.NOT_FOUND, new RuntimeException()));
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		assertThat(this.registry.get("artifactory.deploy.checksum").tag("result", "hit").counter().count())
+			.isEqualTo(2);
+		assertThat(this.registry.get("artifactory.deploy.checksum").tag("result", "fallback").counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void attemptCompletedWhenChecksumAttemptFailsWithoutFallingBackDoesNotCountFallback() {
+		this.metrics.attemptCompleted(attempt(Mode.CHECKSUM, 1, HttpStatus.BAD_GATEWAY, new RuntimeException()));
+		assertThat(this.registry.find("artifactory.deploy.checksum").counter()).isNull();
+	}
+
+	@Test
+	void attemptCompletedWhenThrottledChecksumAttemptIsRetriedSuccessfullyCountsHit() {
+		this.metrics
+			.attemptCompleted(attempt(Mode.CHECKSUM, 1, HttpStatus.TOO_MANY_REQUESTS, new RuntimeException()));
+		this.metrics.attemptCompleted(attempt(Mode.CHECKSUM, 2, HttpStatus.CREATED, null));
+		assertThat(this.registry.get("artifactory.deploy.checksum").tag("result", "hit").counter().count())
+			.isEqualTo(1);
+		assertThat(this.registry.find("artifactory.deploy.checksum").tag("result", "fallback").counter()).isNull();
+	}
+
+	@Test
+	void attemptCompletedCountsFallbackForTargetWhoseChecksumAttemptFailed() {
+		this.metrics.attemptCompleted(attempt(PRIMARY, Mode.CHECKSUM, 1, HttpStatus.CREATED, null));
+		this.metrics
+			.attemptCompleted(attempt(ADDITIONAL, Mode.CHECKSUM, 1, HttpStatus.NOT_FOUND, new RuntimeException()));
+		this.metrics.attemptCompleted(attempt(ADDITIONAL, Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		assertThat(this.registry.get("artifactory.deploy.checksum")
+			.tags("target", "https://dr.example.com", "result", "fallback")
+			.counter()
+			.count()).isOne();
+		assertThat(this.registry.find("artifactory.deploy.checksum")
+			.tags("target", "https://repo.example.com", "result", "fallback")
+			.counter()).isNull();
+	}
+
+	@Test
+	void attemptCompletedTagsMetricsWithTarget() {
+		this.metrics.attemptCompleted(attempt(PRIMARY, Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		this.metrics.attemptCompleted(attempt(ADDITIONAL, Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		this.metrics.attemptCompleted(attempt(ADDITIONAL, Mode.CONTENT, 2, HttpStatus.CREATED, null));
+		assertThat(this.registry.get("artifactory.deploy.requests")
+			.tag("target", "https://repo.example.com")
+			.timer()
+			.count()).isOne();
+		assertThat(this.registry.get("artifactory.deploy.uploaded")
+			.tag("target", "https://repo.example.com")
+			.summary()
+			.totalAmount()).isEqualTo(1024);
+		assertThat(this.registry.get("artifactory.deploy.uploaded")
+			.tag("target", "https://dr.example.com")
+			.summary()
+			.totalAmount()).isEqualTo(2048);
+		assertThat(this.registry.get("artifactory.deploy.retries")
+			.tag("target", "https://dr.example.com")
+			.counter()
+			.count()).isOne();
+		assertThat(this.registry.find("artifactory.deploy.retries")
+			.tag("target", "https://repo.example.com")
+			.counter()).isNull();
+	}
+
+	@Test
+	void writeWritesMetricsInPrometheusTextFormat() throws IOException {
+		this.metrics.attemptCompleted(attempt(Mode.CONTENT, 1, HttpStatus.CREATED, null));
+		Path file = this.temp.resolve("metrics.prom");
+		this.metrics.write(file);
+		assertThat(Files.readString(file)).contains("# TYPE artifactory_deploy_requests_seconds summary")
+			.contains("artifactory_deploy_requests_seconds_count{mode=\"content\",outcome=\"success\",status=\"201\"")
+			.contains("artifactory_deploy_uploaded_bytes_sum{target=\"https://repo.example.com\"");
+	}
+
+	private DeployAttempt attempt(Mode mode, int number, HttpStatusCode status, Throwable failure) {
+		return attempt(PRIMARY, mode, number, status, failure);
+	}
+
+	private DeployAttempt attempt(URI target, Mode mode, int number, HttpStatusCode status, Throwable failure) {
+		return new DeployAttempt(target, new TestDeployableArtifact("/a.jar", 1024), mode, number,
+				Duration.ofMillis(100), status, failure);
+	}
+
+}
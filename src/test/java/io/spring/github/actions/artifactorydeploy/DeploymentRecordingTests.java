@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Build;
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Server;
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
+import io.spring.github.actions.artifactorydeploy.DeploymentSchedulerTests.TestDeployableArtifact;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DeploymentRecording}.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentRecordingTests {
+
+	@TempDir
+	private Path temp;
+
+	@Test
+	void closeWritesRecordingIncludingDeploymentEvents() throws IOException {
+		Path file = this.temp.resolve("deploy.jfr");
+		try (DeploymentRecording recording = new DeploymentRecording(createProperties(file.toString()))) {
+			PhaseEvent phaseEvent = new PhaseEvent(Phase.SCAN);
+			phaseEvent.begin();
+			phaseEvent.commit();
+			ArtifactEvent artifactEvent = new ArtifactEvent(Phase.CHECKSUM, new TestDeployableArtifact("/a.jar", 10));
+			artifactEvent.begin();
+			artifactEvent.size = 10;
+			artifactEvent.commit();
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+			.stream()
+			.filter((event) -> event.getEventType().getName().startsWith("io.spring.github.actions.artifactorydeploy"))
+			.toList();
+		assertThat(events).extracting((event) -> event.getEventType().getName())
+			.containsExactly("io.spring.github.actions.artifactorydeploy.Phase",
+					"io.spring.github.actions.artifactorydeploy.Artifact");
+		assertThat(events.get(0).getString("phase")).isEqualTo("scan");
+		assertThat(events.get(1).getString("phase")).isEqualTo("checksum");
+		assertThat(events.get(1).getString("path")).isEqualTo("/a.jar");
+		assertThat(events.get(1).getLong("size")).isEqualTo(10);
+	}
+
+	@Test
+	void whenNoFileIsConfiguredNothingIsRecorded() {
+		try (DeploymentRecording recording = new DeploymentRecording(createProperties(null))) {
+			new PhaseEvent(Phase.SCAN).commit();
+		}
+		assertThat(this.temp).isEmptyDirectory();
+	}
+
+	private ArtifactoryDeployProperties createProperties(String recording) {
+		return new ArtifactoryDeployProperties(new Server(URI.create("https://repo.example.com"), null, null), null,
+				new Deploy(null, this.temp.toString(), "libs-example-local", 1, false, false, null, null, null, null,
+						false, 0, false, false, false, null, null, recording, new Build("my-build", 1, null), null),
+				null, null);
+	}
+
+}
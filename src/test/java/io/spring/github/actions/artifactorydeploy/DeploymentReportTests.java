@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Phase;
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.SlowArtifact;
+import io.spring.github.actions.artifactorydeploy.DeploymentReport.Summary;
+import io.spring.github.actions.artifactorydeploy.DeploymentSchedulerTests.TestDeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.io.FileSet.Category;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link DeploymentReport}.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentReportTests {
+
+	private static final URI PRIMARY = URI.create("https://repo.example.com");
+
+	private static final URI ADDITIONAL = URI.create("https://dr.example.com");
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	@TempDir
+	private Path temp;
+
+	@Test
+	void summarizeIncludesTimeSpentInEachPhase() {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		report.time(Phase.SCAN, () -> advance(150));
+		report.time(Phase.CHECKSUM, () -> advance(20));
+		report.time(Phase.CHECKSUM, () -> advance(30));
+		report.time(Phase.UPLOAD, () -> advance(2000));
+		Summary summary = report.summarize();
+		assertThat(summary.phases()).containsEntry("scan", 150L)
+			.containsEntry("checksum", 50L)
+			.containsEntry("sign", 0L)
+			.containsEntry("upload", 2000L)
+			.containsEntry("build_info", 0L);
+	}
+
+	@Test
+	void summarizeIncludesArtifactsInEachCategory() {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, new TestDeployableArtifact("/a.jar", 10));
+		batchedArtifacts.add(Category.PRIMARY, new TestDeployableArtifact("/b.jar", 10));
+		batchedArtifacts.add(Category.POM, new TestDeployableArtifact("/a.pom", 10));
+		report.artifacts(batchedArtifacts);
+		assertThat(report.summarize().categories()).containsExactly(entry("primary", 2), entry("pom", 1));
+	}
+
+	@Test
+	void summarizeIncludesDeployedBytesAndThroughputOfUploadedBytes() {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		DeployableArtifact uploaded = new TestDeployableArtifact("/a.jar", 4 * 1024 * 1024);
+		DeployableArtifact failed = new TestDeployableArtifact("/b.jar", 2 * 1024 * 1024);
+		DeployableArtifact checksum = new TestDeployableArtifact("/c.jar", 8 * 1024 * 1024);
+		report.time(Phase.UPLOAD, () -> {
+			report.attemptCompleted(attempt(uploaded, Mode.CONTENT, null));
+			report.deployed(uploaded);
+			report.attemptCompleted(attempt(failed, Mode.CONTENT, new RuntimeException()));
+			report.attemptCompleted(attempt(checksum, Mode.CHECKSUM, null));
+			report.deployed(checksum);
+			advance(2000);
+		});
+		Summary summary = report.summarize();
+		assertThat(summary.artifacts()).isEqualTo(2);
+		assertThat(summary.bytes()).isEqualTo(12 * 1024 * 1024);
+		assertThat(summary.uploadedBytes()).isEqualTo(4 * 1024 * 1024);
+		assertThat(summary.megabytesPerSecond()).isEqualTo(2.0);
+	}
+
+	@Test
+	void summarizeIncludesLatencyPercentiles() {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		for (int i = 1; i <= 100; i++) {
+			report.attemptCompleted(attempt("/" + i + ".jar", i));
+		}
+		assertThat(report.summarize().latencies()).containsExactly(entry("p50", 50L), entry("p95", 95L),
+				entry("p99", 99L));
+	}
+
+	@Test
+	void summarizeIncludesTenSlowestArtifacts() {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		for (int i = 1; i <= 20; i++) {
+			report.attemptCompleted(attempt("/" + i + ".jar", i));
+		}
+		report.attemptCompleted(attempt("/5.jar", 100));
+		assertThat(report.summarize().slowest()).hasSize(10)
+			.startsWith(new SlowArtifact("/5.jar", 105), new SlowArtifact("/20.jar", 20))
+			.endsWith(new SlowArtifact("/12.jar", 12));
+	}
+
+	@Test
+	void summarizeWithAdditionalTargetsUsesSlowestTargetForEachArtifact() {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		report.attemptCompleted(attempt(PRIMARY, "/a.jar", 10));
+		report.attemptCompleted(attempt(ADDITIONAL, "/a.jar", 30));
+		report.attemptCompleted(attempt(PRIMARY, "/b.jar", 20));
+		report.attemptCompleted(attempt(ADDITIONAL, "/b.jar", 5));
+		assertThat(report.summarize().slowest()).containsExactly(new SlowArtifact("/a.jar", 30),
+				new SlowArtifact("/b.jar", 20));
+	}
+
+	@Test
+	void writeAppendsMarkdownToStepSummary() throws IOException {
+		Path stepSummary = this.temp.resolve("step-summary.md");
+		Files.writeString(stepSummary, "Existing summary\n");
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, stepSummary);
+		report.deployed(new TestDeployableArtifact("/a.jar", 1024));
+		report.attemptCompleted(attempt("/a.jar", 25));
+		report.write(null);
+		assertThat(Files.readString(stepSummary)).startsWith("Existing summary\n## Artifactory Deployment")
+			.contains("| 1 | 1024 | 0 | 0.00 MB/s |")
+			.contains("| p50 | 25 |")
+			.contains("| /a.jar | 25 |");
+		assertThat(this.temp).isDirectoryContaining("glob:**/step-summary.md")
+			.isDirectoryNotContaining("glob:**/*.json");
+	}
+
+	@Test
+	void writeWithJsonFileWritesJsonToFile() throws IOException {
+		Path stepSummary = this.temp.resolve("step-summary.md");
+		Path json = this.temp.resolve("report.json");
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, stepSummary);
+		report.deployed(new TestDeployableArtifact("/a.jar", 1024));
+		report.attemptCompleted(attempt("/a.jar", 25));
+		report.write(json);
+		assertThat(stepSummary).exists();
+		assertThat(Files.readString(json)).contains("\"artifacts\" : 1").contains("\"path\" : \"/a.jar\"");
+	}
+
+	@Test
+	void writeWithoutStepSummaryOrJsonFileWritesNothing() throws IOException {
+		DeploymentReport report = new DeploymentReport(this.nanoTime::get, null);
+		report.write(null);
+		assertThat(this.temp).isEmptyDirectory();
+	}
+
+	private DeployAttempt attempt(String path, long durationMillis) {
+		return attempt(PRIMARY, path, durationMillis);
+	}
+
+	private DeployAttempt attempt(DeployableArtifact artifact, Mode mode, Throwable failure) {
+		return new DeployAttempt(PRIMARY, artifact, mode, 1, Duration.ofMillis(10),
+				(failure != null) ? HttpStatus.BAD_GATEWAY : HttpStatus.CREATED, failure);
+	}
+
+	private DeployAttempt attempt(URI target, String path, long durationMillis) {
+		return new DeployAttempt(target, new TestDeployableArtifact(path, 0), Mode.CONTENT, 1,
+				Duration.ofMillis(durationMillis), HttpStatus.CREATED, null);
+	}
+
+	private void advance(long millis) {
+		this.nanoTime.addAndGet(Duration.ofMillis(millis).toNanos());
+	}
+
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Deploy.Order;
+import io.spring.github.actions.artifactorydeploy.Deployable.ArtifactArchive;
+import io.spring.github.actions.artifactorydeploy.Deployable.SingleArtifact;
+import io.spring.github.actions.artifactorydeploy.DeploymentScheduler.Preparer;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.Checksums;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import io.spring.github.actions.artifactorydeploy.io.FileSet.Category;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link DeploymentScheduler}.
+ *
+ * @author Andy Wilkinson
+ */
+class DeploymentSchedulerTests {
+
+	private final List<String> deployed = new CopyOnWriteArrayList<>();
+
+	@Test
+	void deployDeploysAllArtifacts() throws Exception {
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/b/1.0/b-1.0.pom"));
+		batchedArtifacts.add(Category.SIGNATURE, artifact("/com/example/a/1.0/a-1.0.jar.asc"));
+		deploy(1, batchedArtifacts, this.deployed::add);
+		assertThat(this.deployed).containsExactly("/com/example/a/1.0/a-1.0.jar", "/com/example/b/1.0/b-1.0.jar",
+				"/com/example/a/1.0/a-1.0.pom", "/com/example/b/1.0/b-1.0.pom", "/com/example/a/1.0/a-1.0.jar.asc");
+	}
+
+	@Test
+	void deployWhenEmptyReturnsImmediately() throws Exception {
+		deploy(1, new LinkedMultiValueMap<>(), this.deployed::add);
+		assertThat(this.deployed).isEmpty();
+	}
+
+	@Test
+	void deployDoesNotWaitForArtifactsInOtherDirectories() throws Exception {
+		CountDownLatch slowJar = new CountDownLatch(1);
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/b/1.0/b-1.0.pom"));
+		deploy(2, batchedArtifacts, (path) -> {
+			if (path.equals("/com/example/a/1.0/a-1.0.jar")) {
+				await(slowJar);
+			}
+			this.deployed.add(path);
+			if (path.equals("/com/example/b/1.0/b-1.0.pom")) {
+				slowJar.countDown();
+			}
+		});
+		assertThat(this.deployed).containsExactly("/com/example/b/1.0/b-1.0.jar", "/com/example/b/1.0/b-1.0.pom",
+				"/com/example/a/1.0/a-1.0.jar", "/com/example/a/1.0/a-1.0.pom");
+	}
+
+	@Test
+	void deployWaitsForPreviousCategoryInSameDirectory() throws Exception {
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom"));
+		batchedArtifacts.add(Category.ADDITIONAL, artifact("/com/example/a/1.0/a-1.0-sources.jar"));
+		batchedArtifacts.add(Category.ADDITIONAL, artifact("/com/example/a/1.0/a-1.0-javadoc.jar"));
+		deploy(4, batchedArtifacts, (path) -> {
+			if (path.endsWith("a-1.0.jar")) {
+				sleep(100);
+			}
+			this.deployed.add(path);
+		});
+		assertThat(this.deployed).hasSize(4);
+		assertThat(this.deployed.subList(0, 2)).containsExactly("/com/example/a/1.0/a-1.0.jar",
+				"/com/example/a/1.0/a-1.0.pom");
+	}
+
+	@Test
+	void deployWithLargestFirstOrderDeploysLargestReadyArtifactsFirst() throws Exception {
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar", 10));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar", 30));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/c/1.0/c-1.0.jar", 20));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/d/1.0/d-1.0.jar", 20));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom", 50));
+		deploy(1, Order.LARGEST_FIRST, batchedArtifacts, this.deployed::add);
+		assertThat(this.deployed).containsExactly("/com/example/b/1.0/b-1.0.jar", "/com/example/c/1.0/c-1.0.jar",
+				"/com/example/d/1.0/d-1.0.jar", "/com/example/a/1.0/a-1.0.jar", "/com/example/a/1.0/a-1.0.pom");
+	}
+
+	@Test
+	void deployDeploysArchivesInTheStageOfTheirDirectory() throws Exception {
+		CountDownLatch slowJar = new CountDownLatch(1);
+		MultiValueMap<Category, Deployable> batchedDeployables = new LinkedMultiValueMap<>();
+		batchedDeployables.add(Category.PRIMARY, new SingleArtifact(artifact("/com/example/a/1.0/a-1.0.jar")));
+		batchedDeployables.add(Category.PRIMARY, new SingleArtifact(artifact("/com/example/b/1.0/b-1.0.jar")));
+		batchedDeployables.add(Category.SIGNATURE, new ArtifactArchive("/com/example/a/1.0/",
+				List.of(artifact("/com/example/a/1.0/a-1.0.jar.asc"), artifact("/com/example/a/1.0/a-1.0.pom.asc"))));
+		batchedDeployables.add(Category.SIGNATURE, new ArtifactArchive("/com/example/b/1.0/",
+				List.of(artifact("/com/example/b/1.0/b-1.0.jar.asc"), artifact("/com/example/b/1.0/b-1.0.pom.asc"))));
+		deployDeployables(2, Order.PATH, batchedDeployables, (description) -> {
+			if (description.equals("/com/example/a/1.0/a-1.0.jar")) {
+				await(slowJar);
+			}
+			this.deployed.add(description);
+			if (description.equals("archive of 2 artifacts in /com/example/b/1.0/")) {
+				slowJar.countDown();
+			}
+		});
+		assertThat(this.deployed).containsExactly("/com/example/b/1.0/b-1.0.jar",
+				"archive of 2 artifacts in /com/example/b/1.0/", "/com/example/a/1.0/a-1.0.jar",
+				"archive of 2 artifacts in /com/example/a/1.0/");
+	}
+
+	@Test
+	void deployWhenDeploymentFailsStopsDeploymentAndThrowsException() {
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/b/1.0/b-1.0.pom"));
+		assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> deploy(1, batchedArtifacts, (path) -> {
+			if (path.equals("/com/example/a/1.0/a-1.0.jar")) {
+				throw new IllegalStateException("Deployment failed");
+			}
+			this.deployed.add(path);
+		})).withRootCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.deployed).doesNotContain("/com/example/a/1.0/a-1.0.pom", "/com/example/b/1.0/b-1.0.pom");
+	}
+
+	@Test
+	void deployWhenDeploymentFailsInterruptsInFlightDeployments() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar"));
+		assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> deploy(2, batchedArtifacts, (path) -> {
+			if (path.equals("/com/example/a/1.0/a-1.0.jar")) {
+				started.countDown();
+				try {
+					Thread.sleep(10000);
+				}
+				catch (InterruptedException ex) {
+					interrupted.countDown();
+				}
+			}
+			else {
+				await(started);
+				throw new IllegalStateException("Deployment failed");
+			}
+		})).withRootCauseInstanceOf(IllegalStateException.class);
+		assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void deployWithPreparerOnlyDeploysArtifactsOnceTheyHaveBeenPrepared() throws Exception {
+		Set<String> prepared = ConcurrentHashMap.newKeySet();
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/b/1.0/b-1.0.pom"));
+		ExecutorService preparationExecutor = Executors.newFixedThreadPool(2);
+		try {
+			deploy(2, batchedArtifacts, (category, deployable) -> CompletableFuture.runAsync(() -> {
+				sleep(deployable.directory().contains("/a/") ? 50 : 0);
+				prepared.add(deployable.description());
+			}, preparationExecutor), 1, (path) -> {
+				assertThat(prepared).contains(path);
+				this.deployed.add(path);
+			});
+		}
+		finally {
+			preparationExecutor.shutdownNow();
+		}
+		assertThat(this.deployed).containsExactlyInAnyOrder("/com/example/a/1.0/a-1.0.jar",
+				"/com/example/b/1.0/b-1.0.jar", "/com/example/a/1.0/a-1.0.pom", "/com/example/b/1.0/b-1.0.pom");
+		assertThat(this.deployed.indexOf("/com/example/a/1.0/a-1.0.jar"))
+			.isLessThan(this.deployed.indexOf("/com/example/a/1.0/a-1.0.pom"));
+		assertThat(this.deployed.indexOf("/com/example/b/1.0/b-1.0.jar"))
+			.isLessThan(this.deployed.indexOf("/com/example/b/1.0/b-1.0.pom"));
+	}
+
+	@Test
+	void deployWithPreparerDoesNotPrepareFurtherAheadThanLimit() throws Exception {
+		AtomicInteger preparedAhead = new AtomicInteger();
+		AtomicInteger maximumPreparedAhead = new AtomicInteger();
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		for (String name : List.of("a", "b", "c", "d", "e", "f")) {
+			batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/%s/1.0/%s-1.0.jar".formatted(name, name)));
+		}
+		deploy(1, batchedArtifacts, (category, deployable) -> {
+			maximumPreparedAhead.accumulateAndGet(preparedAhead.incrementAndGet(), Math::max);
+			return CompletableFuture.completedFuture(null);
+		}, 2, (path) -> {
+			preparedAhead.decrementAndGet();
+			this.deployed.add(path);
+		});
+		assertThat(this.deployed).hasSize(6);
+		assertThat(maximumPreparedAhead).hasValue(2);
+	}
+
+	@Test
+	void deployWithPreparerAndLargestFirstOrderPreparesAndDeploysLargestArtifactsFirst() throws Exception {
+		List<String> prepared = new CopyOnWriteArrayList<>();
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar", 10));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar", 30));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/c/1.0/c-1.0.jar", 20));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/d/1.0/d-1.0.jar", 20));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom", 50));
+		deploy(1, Order.LARGEST_FIRST, batchedArtifacts, (category, deployable) -> {
+			prepared.add(deployable.description());
+			return CompletableFuture.completedFuture(null);
+		}, 1, this.deployed::add);
+		assertThat(prepared).containsExactly("/com/example/b/1.0/b-1.0.jar", "/com/example/c/1.0/c-1.0.jar",
+				"/com/example/d/1.0/d-1.0.jar", "/com/example/a/1.0/a-1.0.jar", "/com/example/a/1.0/a-1.0.pom");
+		assertThat(this.deployed).containsExactlyElementsOf(prepared);
+	}
+
+	@Test
+	void deployWithLargestFirstOrderDoesNotGenerateSignaturesWhileScheduling() throws Exception {
+		List<String> signed = new CopyOnWriteArrayList<>();
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar", 10));
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/b/1.0/b-1.0.jar", 20));
+		batchedArtifacts.add(Category.SIGNATURE, signature("/com/example/a/1.0/a-1.0.jar.asc", signed));
+		batchedArtifacts.add(Category.SIGNATURE, signature("/com/example/b/1.0/b-1.0.jar.asc", signed));
+		deploy(1, Order.LARGEST_FIRST, batchedArtifacts,
+				(category, deployable) -> CompletableFuture.completedFuture(null), 1, this.deployed::add);
+		assertThat(signed).isEmpty();
+		assertThat(this.deployed).containsExactlyInAnyOrder("/com/example/a/1.0/a-1.0.jar",
+				"/com/example/b/1.0/b-1.0.jar", "/com/example/a/1.0/a-1.0.jar.asc", "/com/example/b/1.0/b-1.0.jar.asc");
+	}
+
+	@Test
+	void deployWhenPreparationFailsStopsDeploymentAndThrowsException() {
+		MultiValueMap<Category, DeployableArtifact> batchedArtifacts = new LinkedMultiValueMap<>();
+		batchedArtifacts.add(Category.PRIMARY, artifact("/com/example/a/1.0/a-1.0.jar"));
+		batchedArtifacts.add(Category.POM, artifact("/com/example/a/1.0/a-1.0.pom"));
+		assertThatExceptionOfType(RuntimeException.class)
+			.isThrownBy(() -> deploy(1, batchedArtifacts,
+					(category, deployable) -> (category != Category.POM) ? CompletableFuture.completedFuture(null)
+							: CompletableFuture.failedFuture(new IllegalStateException("Preparation failed")),
+					2, this.deployed::add))
+			.withRootCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.deployed).doesNotContain("/com/example/a/1.0/a-1.0.pom");
+	}
+
+	private void deploy(int threads, MultiValueMap<Category, DeployableArtifact> batchedArtifacts,
+			Preparer preparer, int prepareAhead, Consumer<String> deployer) throws InterruptedException {
+		deploy(threads, Order.PATH, batchedArtifacts, preparer, prepareAhead, deployer);
+	}
+
+	private void deploy(int threads, Order order, MultiValueMap<Category, DeployableArtifact> batchedArtifacts,
+			Preparer preparer, int prepareAhead, Consumer<String> deployer) throws InterruptedException {
+		try (BoundedExecutor executor = new BoundedExecutor(Executors.newFixedThreadPool(threads), threads * 2)) {
+			new DeploymentScheduler(executor, (deployable) -> deployer.accept(deployable.description()), order,
+					preparer, prepareAhead)
+				.deploy(Deployable.of(batchedArtifacts));
+		}
+	}
+
+	private void deploy(int threads, MultiValueMap<Category, DeployableArtifact> batchedArtifacts,
+			Consumer<String> deployer) throws InterruptedException {
+		deploy(threads, Order.PATH, batchedArtifacts, deployer);
+	}
+
+	private void deploy(int threads, Order order, MultiValueMap<Category, DeployableArtifact> batchedArtifacts,
+			Consumer<String> deployer) throws InterruptedException {
+		deployDeployables(threads, order, Deployable.of(batchedArtifacts), deployer);
+	}
+
+	private void deployDeployables(int threads, Order order, MultiValueMap<Category, Deployable> batchedDeployables,
+			Consumer<String> deployer) throws InterruptedException {
+		try (BoundedExecutor executor = new BoundedExecutor(Executors.newFixedThreadPool(threads), threads * 2)) {
+			new DeploymentScheduler(executor, (deployable) -> deployer.accept(deployable.description()), order)
+				.deploy(batchedDeployables);
+		}
+	}
+
+	private void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private DeployableArtifact artifact(String path) {
+		return artifact(path, 0);
+	}
+
+	private DeployableArtifact artifact(String path, long size) {
+		return new TestDeployableArtifact(path, size);
+	}
+
+	private DeployableArtifact signature(String path, List<String> signed) {
+		return new TestDeployableArtifact(path, 0) {
+
+			@Override
+			public long getSize() {
+				signed.add(getPath());
+				return super.getSize();
+			}
+
+		};
+	}
+
+	static class TestDeployableArtifact implements DeployableArtifact {
+
+		private final String path;
+
+		private final long size;
+
+		TestDeployableArtifact(String path, long size) {
+			this.path = path;
+			this.size = size;
+		}
+
+		@Override
+		public String getPath() {
+			return this.path;
+		}
+
+		@Override
+		public Resource getContent() {
+			return new ByteArrayResource(new byte[0]);
+		}
+
+		@Override
+		public long getSize() {
+			return this.size;
+		}
+
+		@Override
+		public Map<String, String> getProperties() {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public Checksums getChecksums() {
+			return null;
+		}
+
+	}
+
+}
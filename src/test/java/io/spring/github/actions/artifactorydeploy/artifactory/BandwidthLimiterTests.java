@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BandwidthLimiter}.
+ *
+ * @author Andy Wilkinson
+ */
+class BandwidthLimiterTests {
+
+	@Test
+	void createWhenLimitIsZeroThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new BandwidthLimiter(DataSize.ofBytes(0)))
+			.withMessage("Bandwidth limit must be greater than 0");
+	}
+
+	@Test
+	void limitedResourceProvidesContentOfDelegate() throws IOException {
+		byte[] bytes = new byte[64 * 1024];
+		Resource resource = new BandwidthLimiter(DataSize.ofMegabytes(10)).limit(new ByteArrayResource(bytes));
+		assertThat(resource.contentLength()).isEqualTo(bytes.length);
+		try (InputStream input = resource.getInputStream()) {
+			assertThat(input.readAllBytes()).isEqualTo(bytes);
+		}
+	}
+
+	@Test
+	void readingIsLimitedToConfiguredRate() throws IOException {
+		BandwidthLimiter limiter = new BandwidthLimiter(DataSize.ofKilobytes(100));
+		long start = System.nanoTime();
+		readFully(limiter.limit(new ByteArrayResource(new byte[60 * 1024])));
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+	}
+
+	@Test
+	void limitIsSharedByConcurrentReaders() throws Exception {
+		BandwidthLimiter limiter = new BandwidthLimiter(DataSize.ofKilobytes(100));
+		long start = System.nanoTime();
+		CompletableFuture<Void> first = CompletableFuture
+			.runAsync(() -> readFully(limiter.limit(new ByteArrayResource(new byte[30 * 1024]))));
+		CompletableFuture<Void> second = CompletableFuture
+			.runAsync(() -> readFully(limiter.limit(new ByteArrayResource(new byte[30 * 1024]))));
+		CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+	}
+
+	private void readFully(Resource resource) {
+		try (InputStream input = resource.getInputStream()) {
+			input.readAllBytes();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.spring.github.actions.artifactorydeploy.ArtifactoryDeployProperties.Target;
+import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory.BuildRun;
+import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CompositeArtifactory}.
+ *
+ * @author Andy Wilkinson
+ */
+class CompositeArtifactoryTests {
+
+	private final Artifactory primary = mock(Artifactory.class);
+
+	private final Artifactory secondary = mock(Artifactory.class);
+
+	private final Artifactory tertiary = mock(Artifactory.class);
+
+	private final DeployableArtifact artifact = mock(DeployableArtifact.class);
+
+	private final CompositeArtifactory artifactory;
+
+	CompositeArtifactoryTests() {
+		Map<Target, Artifactory> targets = new LinkedHashMap<>();
+		targets.put(new Target(URI.create("https://dr.example.com"), null, null, "libs-dr-local"), this.secondary);
+		targets.put(new Target(URI.create("https://mirror.example.com"), null, null, null), this.tertiary);
+		this.artifactory = new CompositeArtifactory(this.primary, targets, 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.artifactory.close();
+	}
+
+	@Test
+	void deployDeploysToEachTarget() {
+		this.artifactory.deploy("libs-example-local", this.artifact);
+		verify(this.primary).deploy("libs-example-local", this.artifact);
+		verify(this.secondary).deploy("libs-dr-local", this.artifact);
+		verify(this.tertiary).deploy("libs-example-local", this.artifact);
+	}
+
+	@Test
+	void deployDeploysToTargetsConcurrently() {
+		CountDownLatch latch = new CountDownLatch(3);
+		Answer<Void> awaitOthers = (invocation) -> {
+			latch.countDown();
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+			return null;
+		};
+		willAnswer(awaitOthers).given(this.primary).deploy(any(), any());
+		willAnswer(awaitOthers).given(this.secondary).deploy(any(), any());
+		willAnswer(awaitOthers).given(this.tertiary).deploy(any(), any());
+		this.artifactory.deploy("libs-example-local", this.artifact);
+		assertThat(latch.getCount()).isZero();
+	}
+
+	@Test
+	void deployToAdditionalTargetIsBoundedByThreads() throws Exception {
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maximum = new AtomicInteger();
+		willAnswer((invocation) -> {
+			maximum.accumulateAndGet(active.incrementAndGet(), Math::max);
+			Thread.sleep(50);
+			active.decrementAndGet();
+			return null;
+		}).given(this.secondary).deploy(any(), any());
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> deployments = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				deployments.add(callers.submit(() -> this.artifactory.deploy("libs-example-local", this.artifact)));
+			}
+			for (Future<?> deployment : deployments) {
+				deployment.get();
+			}
+		}
+		finally {
+			callers.shutdownNow();
+		}
+		assertThat(maximum.get()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void deployWhenAdditionalTargetFailsThrowsException() {
+		willThrow(new IllegalStateException("Failure")).given(this.secondary).deploy(any(), any());
+		assertThatExceptionOfType(RuntimeException.class)
+			.isThrownBy(() -> this.artifactory.deploy("libs-example-local", this.artifact))
+			.withMessageContaining("https://dr.example.com")
+			.withRootCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void deployArchiveDeploysToEachTarget() {
+		List<DeployableArtifact> artifacts = List.of(this.artifact);
+		this.artifactory.deployArchive("libs-example-local", artifacts);
+		verify(this.primary).deployArchive("libs-example-local", artifacts);
+		verify(this.secondary).deployArchive("libs-dr-local", artifacts);
+		verify(this.tertiary).deployArchive("libs-example-local", artifacts);
+	}
+
+	@Test
+	void getSha1ChecksumsReturnsChecksumsThatAreTheSameInEveryTarget() {
+		List<String> paths = List.of("/a.jar", "/b.jar", "/c.jar", "/d.jar");
+		given(this.primary.getSha1Checksums("libs-example-local", paths))
+			.willReturn(Map.of("/a.jar", "abc", "/b.jar", "def", "/c.jar", "123", "/d.jar", "456"));
+		given(this.secondary.getSha1Checksums("libs-dr-local", paths))
+			.willReturn(Map.of("/a.jar", "abc", "/b.jar", "def", "/c.jar", "789"));
+		given(this.tertiary.getSha1Checksums("libs-example-local", paths))
+			.willReturn(Map.of("/a.jar", "ABC", "/c.jar", "123", "/d.jar", "456"));
+		assertThat(this.artifactory.getSha1Checksums("libs-example-local", paths)).containsOnly(entry("/a.jar", "abc"));
+	}
+
+	@Test
+	void addBuildRunAddsBuildRunToEachTarget() {
+		BuildRun buildRun = new BuildRun(1, Instant.now(), null, Collections.emptyList());
+		this.artifactory.addBuildRun("my-project", "my-build", buildRun);
+		verify(this.primary).addBuildRun("my-project", "my-build", buildRun);
+		verify(this.secondary).addBuildRun("my-project", "my-build", buildRun);
+		verify(this.tertiary).addBuildRun("my-project", "my-build", buildRun);
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package io.spring.github.actions.artifactorydeploy.artifactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -27,13 +28,18 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import io.spring.github.actions.artifactorydeploy.artifactory.Artifactory.BuildRun;
+import io.spring.github.actions.artifactorydeploy.artifactory.DeployAttempt.Mode;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildArtifact;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.BuildModule;
 import io.spring.github.actions.artifactorydeploy.artifactory.payload.DeployableArtifact;
@@ -53,13 +59,22 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.client.RequestMatcher;
 import org.springframework.test.web.client.ResponseCreator;
 import org.springframework.util.FileCopyUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
@@ -114,6 +129,8 @@ class HttpArtifactoryTests {
 			.andExpect(method(HttpMethod.PUT))
 			.andExpect(header("X-Checksum-Deploy", "true"))
 			.andExpect(header("X-Checksum-Sha1", artifact.getChecksums().getSha1()))
+			.andExpect(header("X-Checksum-Md5", artifact.getChecksums().getMd5()))
+			.andExpect(header("X-Checksum-Sha256", artifact.getChecksums().getSha256()))
 			.andRespond(withStatus(HttpStatus.NOT_FOUND));
 		this.server.expect(requestTo(url))
 			.andExpect(header("Content-Length", Long.toString(artifact.getSize())))
@@ -164,6 +181,35 @@ class HttpArtifactoryTests {
 		this.server.verify();
 	}
 
+	@Test
+	void deployWhenChecksumDeployIsThrottledRetriesUsingChecksum() {
+		DeployableArtifact artifact = artifact("/foo/bar.jar");
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		this.server.expect(requestTo(url))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS));
+		this.server.expect(requestTo(url))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+		this.server.expect(requestTo(url)).andExpect(header("X-Checksum-Deploy", "true")).andRespond(withSuccess());
+		this.artifactory.deploy("libs-snapshot-local", artifact);
+		this.server.verify();
+	}
+
+	@Test
+	void deployWhenChecksumDeployIsRepeatedlyThrottledThrowsExceptionWithoutUploading() {
+		DeployableArtifact artifact = artifact("/foo/bar.jar");
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		this.server.expect(ExpectedCount.times(3), requestTo(url))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS));
+		assertThatExceptionOfType(RuntimeException.class)
+			.isThrownBy(() -> this.artifactory.deploy("libs-snapshot-local", artifact))
+			.withMessageStartingWith("Error deploying artifact")
+			.withCauseInstanceOf(HttpClientErrorException.class);
+		this.server.verify();
+	}
+
 	@Test
 	void deployWhenSmallFileDoesNotUseChecksum() {
 		DeployableArtifact artifact = artifact("/foo/bar.jar", "small".getBytes());
@@ -211,6 +257,133 @@ class HttpArtifactoryTests {
 			.withMessageStartingWith("Error deploying artifact");
 	}
 
+	@Test
+	void deployWhenThrottledWith429AndLaterAttemptWorksDeploys() {
+		deployWhenFlaky(false, HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	@Test
+	void deployWhenThrottledWith503AndLaterAttemptWorksDeploys() {
+		deployWhenFlaky(false, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	@Test
+	void deployWhenInterruptedWhileWaitingToRetryThrowsException() {
+		DeployableArtifact artifact = artifact("/foo/bar.jar");
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		this.server.expect(requestTo(url))
+			.andExpect(header("X-Checksum-Deploy", "true"))
+			.andRespond(withStatus(HttpStatus.NOT_FOUND));
+		this.server.expect(requestTo(url)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+		Thread.currentThread().interrupt();
+		try {
+			assertThatExceptionOfType(RuntimeException.class)
+				.isThrownBy(() -> this.artifactory.deploy("libs-snapshot-local", artifact))
+				.withMessageStartingWith("Error deploying artifact")
+				.withCauseInstanceOf(IllegalStateException.class);
+			this.server.verify();
+		}
+		finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test
+	void deployNotifiesListenerOfEachAttempt() {
+		List<DeployAttempt> attempts = new ArrayList<>();
+		MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+		RestTemplateBuilder builder = new RestTemplateBuilder().additionalCustomizers(customizer);
+		Artifactory artifactory = new HttpArtifactory(builder, URI.create("https://repo.example.com"), "alice",
+				"secret", Duration.ofMillis(10), attempts::add);
+		MockRestServiceServer server = customizer.getServer();
+		DeployableArtifact artifact = artifact("/foo/bar.jar");
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		server.expect(requestTo(url)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+		server.expect(requestTo(url)).andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS));
+		server.expect(requestTo(url)).andRespond(withStatus(HttpStatus.CREATED));
+		artifactory.deploy("libs-snapshot-local", artifact);
+		server.verify();
+		assertThat(attempts).extracting(DeployAttempt::mode).containsExactly(Mode.CHECKSUM, Mode.CONTENT, Mode.CONTENT);
+		assertThat(attempts).extracting(DeployAttempt::number).containsExactly(1, 1, 2);
+		assertThat(attempts).extracting(DeployAttempt::status)
+			.containsExactly(HttpStatus.NOT_FOUND, HttpStatus.TOO_MANY_REQUESTS, HttpStatus.CREATED);
+		assertThat(attempts).extracting(DeployAttempt::isThrottled).containsExactly(false, true, false);
+		assertThat(attempts).extracting(DeployAttempt::isSuccessful).containsExactly(false, false, true);
+		assertThat(attempts).allMatch((attempt) -> attempt.artifact() == artifact);
+	}
+
+	@Test
+	void deployWhenConnectionIsResetNotifiesListenerWithoutThrottledAttemptAndRetries() {
+		List<DeployAttempt> attempts = new ArrayList<>();
+		MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+		RestTemplateBuilder builder = new RestTemplateBuilder().additionalCustomizers(customizer);
+		Artifactory artifactory = new HttpArtifactory(builder, URI.create("https://repo.example.com"), "alice",
+				"secret", Duration.ofMillis(10), attempts::add);
+		MockRestServiceServer server = customizer.getServer();
+		DeployableArtifact artifact = artifact("/foo/bar.jar", "small".getBytes());
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		server.expect(requestTo(url)).andRespond(withException(new SocketException()));
+		server.expect(requestTo(url)).andRespond(withSuccess());
+		artifactory.deploy("libs-snapshot-local", artifact);
+		server.verify();
+		assertThat(attempts).extracting(DeployAttempt::status).containsExactly(null, HttpStatus.OK);
+		assertThat(attempts).extracting(DeployAttempt::isThrottled).containsExactly(false, false);
+		assertThat(attempts).extracting(DeployAttempt::isCausedBySocketException).containsExactly(true, false);
+	}
+
+	@Test
+	void deployWhenListenerFailsAfterSuccessfulAttemptDeploys() {
+		MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+		RestTemplateBuilder builder = new RestTemplateBuilder().additionalCustomizers(customizer);
+		Artifactory artifactory = new HttpArtifactory(builder, URI.create("https://repo.example.com"), "alice",
+				"secret", Duration.ofMillis(10), (attempt) -> {
+					throw new IllegalStateException("Listener failure");
+				});
+		MockRestServiceServer server = customizer.getServer();
+		DeployableArtifact artifact = artifact("/foo/bar.jar", "small".getBytes());
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		server.expect(requestTo(url)).andRespond(withSuccess());
+		artifactory.deploy("libs-snapshot-local", artifact);
+		server.verify();
+	}
+
+	@Test
+	void deployWhenListenerFailsAfterFailedAttemptRetriesAndThrowsOriginalFailure() {
+		MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+		RestTemplateBuilder builder = new RestTemplateBuilder().additionalCustomizers(customizer);
+		Artifactory artifactory = new HttpArtifactory(builder, URI.create("https://repo.example.com"), "alice",
+				"secret", Duration.ofMillis(10), (attempt) -> {
+					throw new IllegalStateException("Listener failure");
+				});
+		MockRestServiceServer server = customizer.getServer();
+		DeployableArtifact artifact = artifact("/foo/bar.jar", "small".getBytes());
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		server.expect(ExpectedCount.times(3), requestTo(url)).andRespond(withException(new SocketException()));
+		assertThatExceptionOfType(RuntimeException.class)
+			.isThrownBy(() -> artifactory.deploy("libs-snapshot-local", artifact))
+			.withMessageStartingWith("Error deploying artifact")
+			.withCauseInstanceOf(ResourceAccessException.class);
+		server.verify();
+	}
+
+	@Test
+	void deployWithBandwidthLimiterUploadsTheDeployableArtifact() {
+		MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+		RestTemplateBuilder builder = new RestTemplateBuilder().additionalCustomizers(customizer);
+		Artifactory artifactory = new HttpArtifactory(builder, URI.create("https://repo.example.com"), "alice",
+				"secret", Duration.ofMillis(10), (attempt) -> {
+				}, new BandwidthLimiter(DataSize.ofMegabytes(1)));
+		MockRestServiceServer server = customizer.getServer();
+		DeployableArtifact artifact = artifact("/foo/bar.jar", "small".getBytes());
+		String url = "https://repo.example.com/libs-snapshot-local/foo/bar.jar";
+		server.expect(requestTo(url))
+			.andExpect(header("Content-Length", "5"))
+			.andExpect(content().bytes("small".getBytes()))
+			.andRespond(withSuccess());
+		artifactory.deploy("libs-snapshot-local", artifact);
+		server.verify();
+	}
+
 	private void deployWhenFlaky(boolean fail, HttpStatus flakyStatus) {
 		deployWhenFlaky(fail, withStatus(flakyStatus));
 	}
@@ -238,6 +411,71 @@ class HttpArtifactoryTests {
 		return (request) -> assertThat(request.getHeaders().keySet()).doesNotContain("X-Checksum-Deploy");
 	}
 
+	@Test
+	void deployArchiveUploadsArchiveToBeExploded() {
+		Map<String, String> properties = Map.of("buildNumber", "1");
+		DeployableArtifact jar = artifact("/com/example/foo/1.0/foo-1.0.jar", new byte[] { 1 }, properties);
+		DeployableArtifact pom = artifact("/com/example/bar/1.0/bar-1.0.pom", new byte[] { 2, 3 }, properties);
+		this.server
+			.expect(requestTo(allOf(startsWith("https://repo.example.com/libs-snapshot-local/com/example/artifacts-"),
+					endsWith(".zip;buildNumber=1"))))
+			.andExpect(method(HttpMethod.PUT))
+			.andExpect(header("X-Explode-Archive", "true"))
+			.andExpect((request) -> assertThat(zipEntries((MockClientHttpRequest) request))
+				.containsExactly(entry("foo/1.0/foo-1.0.jar", 1), entry("bar/1.0/bar-1.0.pom", 2)))
+			.andRespond(withSuccess());
+		this.artifactory.deployArchive("libs-snapshot-local", List.of(jar, pom));
+		this.server.verify();
+	}
+
+	@Test
+	void deployArchiveWhenArtifactsHaveDifferentPropertiesThrowsException() {
+		DeployableArtifact jar = artifact("/com/example/foo/1.0/foo-1.0.jar", Map.of("buildNumber", "1"));
+		DeployableArtifact pom = artifact("/com/example/foo/1.0/foo-1.0.pom", Map.of("buildNumber", "2"));
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.artifactory.deployArchive("libs-snapshot-local", List.of(jar, pom)))
+			.withMessage("Artifacts must all have the same properties");
+	}
+
+	private Map<String, Integer> zipEntries(MockClientHttpRequest request) throws IOException {
+		Map<String, Integer> entries = new LinkedHashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(request.getBodyAsBytes()))) {
+			ZipEntry entry = zip.getNextEntry();
+			while (entry != null) {
+				entries.put(entry.getName(), zip.readAllBytes().length);
+				entry = zip.getNextEntry();
+			}
+		}
+		return entries;
+	}
+
+	@Test
+	void getSha1ChecksumsQueriesArtifactsInEachDirectory() {
+		String query = "items.find({\"repo\":\"libs-snapshot-local\",\"$or\":[{\"path\":\"com/example/foo/1.0\"},"
+				+ "{\"path\":\"com/example/bar/1.0\"}]}).include(\"repo\",\"path\",\"name\",\"actual_sha1\")";
+		String results = """
+				{
+				  "results": [
+				    { "path": "com/example/foo/1.0", "name": "foo-1.0.jar", "actual_sha1": "a" },
+				    { "path": "com/example/foo/1.0", "name": "foo-1.0.pom", "actual_sha1": "b" },
+				    { "path": "com/example/foo/1.0", "name": "other.txt", "actual_sha1": "c" }
+				  ],
+				  "range": { "start_pos": 0, "end_pos": 3, "total": 3 }
+				}
+				""";
+		this.server.expect(requestTo("https://repo.example.com/api/search/aql"))
+			.andExpect(method(HttpMethod.POST))
+			.andExpect(content().contentType(MediaType.TEXT_PLAIN))
+			.andExpect(content().string(query))
+			.andRespond(withSuccess(results, MediaType.APPLICATION_JSON));
+		Map<String, String> checksums = this.artifactory.getSha1Checksums("libs-snapshot-local",
+				List.of("/com/example/foo/1.0/foo-1.0.jar", "/com/example/foo/1.0/foo-1.0.pom",
+						"/com/example/bar/1.0/bar-1.0.jar"));
+		this.server.verify();
+		assertThat(checksums).containsOnly(entry("/com/example/foo/1.0/foo-1.0.jar", "a"),
+				entry("/com/example/foo/1.0/foo-1.0.pom", "b"));
+	}
+
 	@Test
 	void addAddsBuildInfo() {
 		this.server.expect(requestTo("https://repo.example.com/api/build"))
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.spring.github.actions.artifactorydeploy.artifactory.UploadClientHttpRequestFactory.UploadBody;
+import io.spring.github.actions.artifactorydeploy.artifactory.UploadClientHttpRequestFactory.UploadBodyConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link UploadClientHttpRequestFactory}.
+ *
+ * @author Andy Wilkinson
+ */
+class UploadClientHttpRequestFactoryTests {
+
+	private static final byte[] BYTES;
+
+	static {
+		BYTES = new byte[1024 * 1024];
+		new Random().nextBytes(BYTES);
+	}
+
+	private final UploadClientHttpRequestFactory requestFactory = new UploadClientHttpRequestFactory(
+			HttpClient.newBuilder().version(Version.HTTP_1_1).build(), Duration.ofSeconds(30));
+
+	private final UploadClientHttpRequestFactory impatientRequestFactory = new UploadClientHttpRequestFactory(
+			HttpClient.newBuilder().version(Version.HTTP_1_1).build(), Duration.ofSeconds(1));
+
+	private HttpServer server;
+
+	private volatile ReceivedRequest received;
+
+	private volatile Duration responseDelay = Duration.ZERO;
+
+	private volatile int responseStatus = 201;
+
+	@TempDir
+	Path temp;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.server.createContext("/", this::handle);
+		this.server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		this.server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (InputStream body = exchange.getRequestBody()) {
+			this.received = new ReceivedRequest(exchange.getRequestMethod(),
+					exchange.getRequestHeaders().getFirst("Content-Length"),
+					exchange.getRequestHeaders().getFirst("X-Test"), body.readAllBytes());
+		}
+		try {
+			Thread.sleep(this.responseDelay.toMillis());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		exchange.getResponseHeaders().add("X-Response", "test");
+		exchange.sendResponseHeaders(this.responseStatus, -1);
+		exchange.close();
+	}
+
+	@Test
+	void executeWithFileUploadBodyUploadsFile() throws IOException {
+		Path file = Files.write(this.temp.resolve("upload.jar"), BYTES);
+		ClientHttpRequest request = this.requestFactory.createRequest(uri(), HttpMethod.PUT);
+		request.getHeaders().add("X-Test", "file");
+		new UploadBodyConverter().write(uploadBody(file), null, request);
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+			assertThat(response.getStatusText()).isEqualTo("Created");
+			assertThat(response.getHeaders().getFirst("X-Response")).isEqualTo("test");
+		}
+		assertThat(this.received.method()).isEqualTo("PUT");
+		assertThat(this.received.contentLength()).isEqualTo(Integer.toString(BYTES.length));
+		assertThat(this.received.test()).isEqualTo("file");
+		assertThat(this.received.body()).isEqualTo(BYTES);
+	}
+
+	@Test
+	void executeWithoutUploadBodyUsesDelegate() throws IOException {
+		ClientHttpRequest request = this.requestFactory.createRequest(uri(), HttpMethod.POST);
+		request.getHeaders().add("X-Test", "stream");
+		request.getBody().write("test".getBytes(StandardCharsets.UTF_8));
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		}
+		assertThat(this.received.method()).isEqualTo("POST");
+		assertThat(this.received.test()).isEqualTo("stream");
+		assertThat(this.received.body()).isEqualTo("test".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void exchangeWithoutUploadBodyWhenErrorResponseThrowsSameExceptionAsJdkClientHttpRequestFactory() {
+		this.responseStatus = 404;
+		RequestEntity<String> request = RequestEntity.post(uri()).body("test");
+		assertThatExceptionOfType(HttpClientErrorException.NotFound.class)
+			.isThrownBy(() -> restTemplate(this.requestFactory).exchange(request, Void.class));
+		assertThatExceptionOfType(HttpClientErrorException.NotFound.class)
+			.isThrownBy(() -> restTemplate(jdkRequestFactory(Duration.ofSeconds(30))).exchange(request, Void.class));
+	}
+
+	@Test
+	void exchangeWithoutUploadBodyWhenResponseIsSlowThrowsSameExceptionAsJdkClientHttpRequestFactory() {
+		this.responseDelay = Duration.ofSeconds(3);
+		RequestEntity<Void> request = RequestEntity.put(uri()).header("X-Checksum-Deploy", "true").build();
+		assertThatExceptionOfType(ResourceAccessException.class)
+			.isThrownBy(() -> restTemplate(this.impatientRequestFactory).exchange(request, Void.class))
+			.withCauseInstanceOf(HttpTimeoutException.class);
+		assertThatExceptionOfType(ResourceAccessException.class)
+			.isThrownBy(() -> restTemplate(jdkRequestFactory(Duration.ofSeconds(1))).exchange(request, Void.class))
+			.withCauseInstanceOf(HttpTimeoutException.class);
+	}
+
+	@Test
+	void exchangeWithUploadBodyWhenErrorResponseThrowsSameExceptionAsWithoutUploadBody() throws IOException {
+		this.responseStatus = 404;
+		Path file = Files.write(this.temp.resolve("upload.jar"), BYTES);
+		RequestEntity<UploadBody> request = RequestEntity.put(uri())
+			.contentType(MediaType.APPLICATION_OCTET_STREAM)
+			.body(uploadBody(file));
+		assertThatExceptionOfType(HttpClientErrorException.NotFound.class)
+			.isThrownBy(() -> restTemplate(this.requestFactory).exchange(request, Void.class));
+	}
+
+	@Test
+	void writeToOtherOutputMessageCopiesFile() throws IOException {
+		Path file = Files.write(this.temp.resolve("upload.jar"), BYTES);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		new UploadBodyConverter().write(uploadBody(file), null, outputMessage);
+		assertThat(outputMessage.getBodyAsBytes()).isEqualTo(BYTES);
+		assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo(BYTES.length);
+		assertThat(outputMessage.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+	}
+
+	@Test
+	void executeWithSlowUploadBodyThatTakesLongerThanReadTimeoutUploadsContent() throws IOException {
+		ClientHttpRequest request = this.impatientRequestFactory.createRequest(uri(), HttpMethod.PUT);
+		new UploadBodyConverter().write(new UploadBody(new SlowResource(), BYTES.length), null, request);
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		}
+		assertThat(this.received.contentLength()).isEqualTo(Integer.toString(BYTES.length));
+		assertThat(this.received.body()).isEqualTo(BYTES);
+	}
+
+	@Test
+	void executeWithBandwidthLimitedUploadBodyLimitsRateOnCallingThread() throws Exception {
+		Set<Thread> limitingThreads = ConcurrentHashMap.newKeySet();
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(DataSize.ofKilobytes(512)) {
+
+			@Override
+			void acquire(int bytes) throws InterruptedException {
+				limitingThreads.add(Thread.currentThread());
+				super.acquire(bytes);
+			}
+
+		};
+		Path file = Files.write(this.temp.resolve("upload.jar"), BYTES);
+		ClientHttpRequest request = this.requestFactory.createRequest(uri(), HttpMethod.PUT);
+		new UploadBodyConverter().write(new UploadBody(new FileSystemResource(file), BYTES.length, bandwidthLimiter),
+				null, request);
+		long start = System.nanoTime();
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		}
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(Duration.ofMillis(1500));
+		assertThat(this.received.body()).isEqualTo(BYTES);
+		assertThat(limitingThreads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	void executeWithUploadBodyWhenResponseTakesLongerThanReadTimeoutThrowsException() throws IOException {
+		this.responseDelay = Duration.ofSeconds(3);
+		Path file = Files.write(this.temp.resolve("upload.jar"), BYTES);
+		ClientHttpRequest request = this.impatientRequestFactory.createRequest(uri(), HttpMethod.PUT);
+		new UploadBodyConverter().write(uploadBody(file), null, request);
+		assertThatExceptionOfType(HttpTimeoutException.class).isThrownBy(request::execute)
+			.withMessageContaining("No response");
+	}
+
+	private RestTemplate restTemplate(ClientHttpRequestFactory requestFactory) {
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.getMessageConverters().add(new UploadBodyConverter());
+		return restTemplate;
+	}
+
+	private JdkClientHttpRequestFactory jdkRequestFactory(Duration readTimeout) {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+				HttpClient.newBuilder().version(Version.HTTP_1_1).build());
+		requestFactory.setReadTimeout(readTimeout);
+		return requestFactory;
+	}
+
+	private UploadBody uploadBody(Path file) throws IOException {
+		return new UploadBody(new FileSystemResource(file), Files.size(file));
+	}
+
+	private URI uri() {
+		InetSocketAddress address = this.server.getAddress();
+		return URI.create("http://%s:%d/repo/upload.jar".formatted(address.getHostString(), address.getPort()));
+	}
+
+	/**
+	 * Resource whose content takes around 2.5 seconds to read, pausing between small
+	 * reads so that progress is made well within the impatient read timeout.
+	 */
+	private static final class SlowResource extends AbstractResource {
+
+		@Override
+		public String getDescription() {
+			return "slow resource";
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new InputStream() {
+
+				private int position;
+
+				@Override
+				public int read() throws IOException {
+					byte[] buffer = new byte[1];
+					return (read(buffer, 0, 1) != -1) ? buffer[0] & 0xFF : -1;
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) throws IOException {
+					if (this.position >= BYTES.length) {
+						return -1;
+					}
+					try {
+						Thread.sleep(40);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new IOException(ex);
+					}
+					int read = Math.min(Math.min(length, 16 * 1024), BYTES.length - this.position);
+					System.arraycopy(BYTES, this.position, buffer, offset, read);
+					this.position += read;
+					return read;
+				}
+
+			};
+		}
+
+	}
+
+	private record ReceivedRequest(String method, String contentLength, String test, byte[] body) {
+
+	}
+
+}
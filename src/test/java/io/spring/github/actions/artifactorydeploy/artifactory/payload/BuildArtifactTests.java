@@ -43,6 +43,8 @@ class BuildArtifactTests {
 
 	private static final String MD5 = "900150983cd24fb0d6963f7d28e17f72";
 
+	private static final String SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
 	private static final String NAME = "foo.jar";
 
 	@Autowired
@@ -78,4 +80,10 @@ class BuildArtifactTests {
 		assertThat(this.json.write(artifact)).isEqualToJson("build-artifact.json");
 	}
 
+	@Test
+	void writeWithSha256SerializesJson() throws Exception {
+		BuildArtifact artifact = new BuildArtifact(TYPE, SHA1, SHA256, MD5, NAME);
+		assertThat(this.json.write(artifact)).isEqualToJson("build-artifact-with-sha256.json");
+	}
+
 }
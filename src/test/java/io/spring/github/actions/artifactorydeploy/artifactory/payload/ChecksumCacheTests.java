@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.artifactory.payload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ChecksumCache}.
+ *
+ * @author Andy Wilkinson
+ */
+class ChecksumCacheTests {
+
+	private static final Checksums CHECKSUMS = new Checksums("a9993e364706816aba3e25717850c26c9cd0d89d",
+			"900150983cd24fb0d6963f7d28e17f72", "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+
+	private final AtomicInteger calculations = new AtomicInteger();
+
+	@TempDir
+	Path temp;
+
+	@Test
+	void loadWhenFileDoesNotExistCreatesEmptyCache() throws IOException {
+		ChecksumCache cache = ChecksumCache.load(this.temp.resolve("checksums.cache"));
+		Path file = createFile("abc");
+		assertThat(cache.getChecksums(file.toFile(), this::calculate)).isSameAs(CHECKSUMS);
+		assertThat(this.calculations).hasValue(1);
+		assertThat(cache.getHits()).isZero();
+	}
+
+	@Test
+	void loadWhenFileIsNotACacheCreatesEmptyCache() throws IOException {
+		Path cacheFile = this.temp.resolve("checksums.cache");
+		Files.writeString(cacheFile, "not a cache");
+		ChecksumCache cache = ChecksumCache.load(cacheFile);
+		cache.getChecksums(createFile("abc").toFile(), this::calculate);
+		assertThat(this.calculations).hasValue(1);
+	}
+
+	@Test
+	void getChecksumsWhenFileIsUnchangedUsesSavedChecksums() throws IOException {
+		Path cacheFile = this.temp.resolve("checksums.cache");
+		Path file = createFile("abc");
+		ChecksumCache cache = ChecksumCache.load(cacheFile);
+		cache.getChecksums(file.toFile(), this::calculate);
+		cache.save();
+		ChecksumCache reloaded = ChecksumCache.load(cacheFile);
+		Checksums checksums = reloaded.getChecksums(file.toFile(), this::calculate);
+		assertThat(checksums.getSha1()).isEqualTo(CHECKSUMS.getSha1());
+		assertThat(checksums.getMd5()).isEqualTo(CHECKSUMS.getMd5());
+		assertThat(checksums.getSha256()).isEqualTo(CHECKSUMS.getSha256());
+		assertThat(this.calculations).hasValue(1);
+		assertThat(reloaded.getHits()).isOne();
+	}
+
+	@Test
+	void getChecksumsWhenFileHasBeenModifiedCalculatesChecksums() throws IOException {
+		Path cacheFile = this.temp.resolve("checksums.cache");
+		Path file = createFile("abc");
+		ChecksumCache cache = ChecksumCache.load(cacheFile);
+		cache.getChecksums(file.toFile(), this::calculate);
+		cache.save();
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+		ChecksumCache.load(cacheFile).getChecksums(file.toFile(), this::calculate);
+		assertThat(this.calculations).hasValue(2);
+	}
+
+	@Test
+	void getChecksumsWhenFileSizeHasChangedCalculatesChecksums() throws IOException {
+		Path cacheFile = this.temp.resolve("checksums.cache");
+		Path file = createFile("abc");
+		FileTime lastModified = Files.getLastModifiedTime(file);
+		ChecksumCache cache = ChecksumCache.load(cacheFile);
+		cache.getChecksums(file.toFile(), this::calculate);
+		cache.save();
+		Files.writeString(file, "abcd");
+		Files.setLastModifiedTime(file, lastModified);
+		ChecksumCache.load(cacheFile).getChecksums(file.toFile(), this::calculate);
+		assertThat(this.calculations).hasValue(2);
+	}
+
+	@Test
+	void saveOnlyRetainsChecksumsThatWereUsed() throws IOException {
+		Path cacheFile = this.temp.resolve("checksums.cache");
+		Path a = createFile("a");
+		Path b = createFile("b");
+		ChecksumCache cache = ChecksumCache.load(cacheFile);
+		cache.getChecksums(a.toFile(), this::calculate);
+		cache.getChecksums(b.toFile(), this::calculate);
+		cache.save();
+		ChecksumCache onlyA = ChecksumCache.load(cacheFile);
+		onlyA.getChecksums(a.toFile(), this::calculate);
+		onlyA.save();
+		ChecksumCache.load(cacheFile).getChecksums(b.toFile(), this::calculate);
+		assertThat(this.calculations).hasValue(3);
+	}
+
+	private Checksums calculate() {
+		this.calculations.incrementAndGet();
+		return CHECKSUMS;
+	}
+
+	private Path createFile(String name) throws IOException {
+		return Files.writeString(this.temp.resolve(name), name);
+	}
+
+}
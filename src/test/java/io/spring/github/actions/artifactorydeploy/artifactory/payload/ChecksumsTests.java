@@ -16,8 +16,12 @@
 
 package io.spring.github.actions.artifactorydeploy.artifactory.payload;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.jupiter.api.Test;
 
+import org.springframework.core.io.ByteArrayResource;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
@@ -33,6 +37,8 @@ class ChecksumsTests {
 
 	private static final String MD5 = "900150983cd24fb0d6963f7d28e17f72";
 
+	private static final String SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
 	@Test
 	void createWhenSha1IsEmptyThrowsException() {
 		assertThatIllegalArgumentException().isThrownBy(() -> new Checksums("", MD5))
@@ -57,6 +63,12 @@ class ChecksumsTests {
 			.withMessage("MD5 must be 32 characters long");
 	}
 
+	@Test
+	void createWhenSha256IsIncorrectLengthThrowsException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new Checksums(SHA1, MD5, "0"))
+			.withMessage("SHA256 must be 64 characters long");
+	}
+
 	@Test
 	void getSha1GetsSha1() {
 		Checksums checksums = new Checksums(SHA1, MD5);
@@ -69,4 +81,24 @@ class ChecksumsTests {
 		assertThat(checksums.getMd5()).isEqualTo(MD5);
 	}
 
+	@Test
+	void getSha256GetsSha256() {
+		Checksums checksums = new Checksums(SHA1, MD5, SHA256);
+		assertThat(checksums.getSha256()).isEqualTo(SHA256);
+	}
+
+	@Test
+	void getSha256WhenCreatedWithoutSha256ReturnsNull() {
+		Checksums checksums = new Checksums(SHA1, MD5);
+		assertThat(checksums.getSha256()).isNull();
+	}
+
+	@Test
+	void calculateCalculatesSha1Md5AndSha256() {
+		Checksums checksums = Checksums.calculate(new ByteArrayResource("abc".getBytes(StandardCharsets.UTF_8)));
+		assertThat(checksums.getSha1()).isEqualTo(SHA1);
+		assertThat(checksums.getMd5()).isEqualTo(MD5);
+		assertThat(checksums.getSha256()).isEqualTo(SHA256);
+	}
+
 }
@@ -16,11 +16,17 @@
 
 package io.spring.github.actions.artifactorydeploy.artifactory.payload;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -56,6 +62,45 @@ class DeployableFileArtifactTests {
 		assertThat(artifact.getChecksums().getMd5()).isEqualTo("900150983cd24fb0d6963f7d28e17f72");
 	}
 
+	@Test
+	void getChecksumsWhenCalledConcurrentlyCalculatesChecksumsOnce() throws Exception {
+		DeployableArtifact artifact = create("/foo", new byte[1024 * 1024], null, null);
+		List<Callable<Checksums>> tasks = Collections.nCopies(4, artifact::getChecksums);
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+		try {
+			List<Future<Checksums>> checksums = executor.invokeAll(tasks);
+			Checksums first = checksums.get(0).get();
+			for (Future<Checksums> future : checksums) {
+				assertThat(future.get()).isSameAs(first);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void readContentWhenChecksumIsNullCalculatesChecksumsFromSameRead() throws IOException {
+		DeployableFileArtifact artifact = (DeployableFileArtifact) create("/foo", CONTENT, null, null);
+		byte[] read = new byte[2];
+		artifact.readContent((content) -> content.read(read));
+		Files.delete(new File(this.tempDir, "foo").toPath());
+		assertThat(read).isEqualTo("ab".getBytes());
+		assertThat(artifact.getChecksums().getSha1()).isEqualTo("a9993e364706816aba3e25717850c26c9cd0d89d");
+		assertThat(artifact.getChecksums().getMd5()).isEqualTo("900150983cd24fb0d6963f7d28e17f72");
+	}
+
+	@Test
+	void readContentWhenHasChecksumsReadsContent() throws IOException {
+		Checksums checksums = new Checksums("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa",
+				"aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+		DeployableFileArtifact artifact = (DeployableFileArtifact) create("/foo", CONTENT, null, checksums);
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		artifact.readContent((content) -> content.transferTo(read));
+		assertThat(read.toByteArray()).isEqualTo(CONTENT);
+		assertThat(artifact.getChecksums()).isSameAs(checksums);
+	}
+
 	@Test
 	void getPropertiesReturnsProperties() {
 		Map<String, String> properties = Collections.singletonMap("foo", "bar");
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.github.actions.artifactorydeploy.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ChecksumInputStream}.
+ *
+ * @author Andy Wilkinson
+ */
+class ChecksumInputStreamTests {
+
+	private static final byte[] CONTENT = "foo".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void getChecksumsReturnsChecksumsOfContentThatWasRead() throws IOException {
+		try (ChecksumInputStream input = new ChecksumInputStream(new ByteArrayInputStream(CONTENT))) {
+			assertThat(input.read()).isEqualTo('f');
+			assertThat(input.readAllBytes()).isEqualTo("oo".getBytes(StandardCharsets.UTF_8));
+			assertThat(input.getChecksums()).isEqualTo(Checksum.calculateAll("foo"));
+		}
+	}
+
+	@Test
+	void getChecksumsReadsRemainingContent() throws IOException {
+		try (ChecksumInputStream input = new ChecksumInputStream(new ByteArrayInputStream(CONTENT))) {
+			assertThat(input.skip(1)).isOne();
+			Map<Checksum, String> checksums = input.getChecksums();
+			assertThat(checksums).isEqualTo(Checksum.calculateAll("foo"));
+			assertThat(input.getChecksums()).isSameAs(checksums);
+		}
+	}
+
+}
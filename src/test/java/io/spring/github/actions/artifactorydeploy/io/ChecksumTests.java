@@ -18,12 +18,17 @@ package io.spring.github.actions.artifactorydeploy.io;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.util.FileCopyUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -43,6 +48,8 @@ class ChecksumTests {
 
 	private static final String MD5 = "acbd18db4cc2f85cedef654fccc4a4d8";
 
+	private static final String SHA256 = "2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae";
+
 	@TempDir
 	File tempDir;
 
@@ -50,6 +57,7 @@ class ChecksumTests {
 	void getFileExtensionReturnsExtension() {
 		assertThat(Checksum.MD5.getFileExtension()).isEqualTo(".md5");
 		assertThat(Checksum.SHA1.getFileExtension()).isEqualTo(".sha1");
+		assertThat(Checksum.SHA256.getFileExtension()).isEqualTo(".sha256");
 	}
 
 	@Test
@@ -85,6 +93,7 @@ class ChecksumTests {
 		Checksum.generateChecksumFiles(file);
 		assertThat(new File(file.getParentFile(), file.getName() + ".sha1")).hasContent(SHA1);
 		assertThat(new File(file.getParentFile(), file.getName() + ".md5")).hasContent(MD5);
+		assertThat(new File(file.getParentFile(), file.getName() + ".sha256")).hasContent(SHA256);
 	}
 
 	@Test
@@ -101,6 +110,7 @@ class ChecksumTests {
 		assertThat(Checksum.isChecksumFile("foo.md5")).isTrue();
 		assertThat(Checksum.isChecksumFile("foo/bar.MD5")).isTrue();
 		assertThat(Checksum.isChecksumFile("foo.sha1")).isTrue();
+		assertThat(Checksum.isChecksumFile("foo.sha256")).isTrue();
 	}
 
 	@Test
@@ -110,20 +120,50 @@ class ChecksumTests {
 
 	@Test
 	void getFileExtensionsReturnsExtensions() {
-		assertThat(Checksum.getFileExtensions()).containsOnly(".md5", ".sha1");
+		assertThat(Checksum.getFileExtensions()).containsOnly(".md5", ".sha1", ".sha256");
 	}
 
 	@Test
 	void calculateAllFromResourceReturnsChecksums() {
 		ByteArrayResource resource = new ByteArrayResource(SOURCE.getBytes());
 		Map<Checksum, String> checksums = Checksum.calculateAll(resource);
-		assertThat(checksums).containsOnly(entry(Checksum.MD5, MD5), entry(Checksum.SHA1, SHA1));
+		assertThat(checksums).containsOnly(entry(Checksum.MD5, MD5), entry(Checksum.SHA1, SHA1),
+				entry(Checksum.SHA256, SHA256));
+	}
+
+	@Test
+	void calculateAllFromFileResourceReturnsChecksums() throws IOException {
+		File file = new File(this.tempDir, "test");
+		FileCopyUtils.copy(SOURCE, new FileWriter(file));
+		Map<Checksum, String> checksums = Checksum.calculateAll(new FileSystemResource(file));
+		assertThat(checksums).containsOnly(entry(Checksum.MD5, MD5), entry(Checksum.SHA1, SHA1),
+				entry(Checksum.SHA256, SHA256));
+	}
+
+	@Test
+	void calculateAllFromFileLargerThanBufferReturnsSameChecksumsAsFromStream() throws IOException {
+		byte[] content = new byte[300 * 1024];
+		new Random(0).nextBytes(content);
+		Path file = this.tempDir.toPath().resolve("test");
+		Files.write(file, content);
+		assertThat(Checksum.calculateAll(file, Long.MAX_VALUE))
+			.isEqualTo(Checksum.calculateAll(new ByteArrayResource(content)));
+	}
+
+	@Test
+	void calculateAllFromMappedFileReturnsSameChecksumsAsFromStream() throws IOException {
+		byte[] content = new byte[300 * 1024];
+		new Random(0).nextBytes(content);
+		Path file = this.tempDir.toPath().resolve("test");
+		Files.write(file, content);
+		assertThat(Checksum.calculateAll(file, 0)).isEqualTo(Checksum.calculateAll(new ByteArrayResource(content)));
 	}
 
 	@Test
 	void calculateAllFromStringReturnsChecksums() {
 		Map<Checksum, String> checksums = Checksum.calculateAll(SOURCE);
-		assertThat(checksums).containsOnly(entry(Checksum.MD5, MD5), entry(Checksum.SHA1, SHA1));
+		assertThat(checksums).containsOnly(entry(Checksum.MD5, MD5), entry(Checksum.SHA1, SHA1),
+				entry(Checksum.SHA256, SHA256));
 	}
 
 }